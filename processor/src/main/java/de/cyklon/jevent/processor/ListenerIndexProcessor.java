@@ -0,0 +1,189 @@
+package de.cyklon.jevent.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Writes an index of all listener classes and their event handler methods at build time
+ * <p>
+ * The index is written to {@code META-INF/jevent/listeners.index} and is used by {@code EventManager.registerListenerPackage(String)}
+ * instead of scanning the package and reflecting over every class at runtime.
+ * A class is indexed as a listener if it would be registered by a package scan, that is if it or its package is annotated with {@code @Listener},
+ * or if it is a subclass of such a class and subclasses are included.
+ * <p>
+ * The index only contains the classes of the compilation that wrote it and replaces the previous index.
+ * The processor is not incremental, so Gradle and Maven recompile all sources when one changes,
+ * but a compiler that only compiles the changed sources (like the incremental build of an IDE) writes an incomplete index,
+ * and the listeners missing from it are not registered. Rebuild the project after such a build.
+ * <p>
+ * Add it to the annotation processor path of the project containing the listeners:
+ * <pre>{@code
+ *  dependencies {
+ *      annotationProcessor "de.cyklon:JEvent-processor:VERSION"
+ *  }
+ * }</pre>
+ */
+@SupportedAnnotationTypes("*")
+public final class ListenerIndexProcessor extends AbstractProcessor {
+	private static final String RESOURCE = "META-INF/jevent/listeners.index";
+
+	private static final String LISTENER = "de.cyklon.jevent.Listener";
+	private static final String EVENT_HANDLER = "de.cyklon.jevent.EventHandler";
+	private static final String PARAMETER_INSTANCE = "de.cyklon.jevent.ParameterInstance";
+	private static final String EVENT = "de.cyklon.jevent.Event";
+	private static final String EVENT_MANAGER = "de.cyklon.jevent.EventManager";
+
+	private final Set<String> records = new LinkedHashSet<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (roundEnv.processingOver()) write();
+		else {
+			for (Element root : roundEnv.getRootElements()) {
+				if (root instanceof PackageElement pkg) records.add(record("package", pkg.getQualifiedName()));
+				else if (root instanceof TypeElement type) processType(type);
+			}
+		}
+		return false;
+	}
+
+	private void processType(TypeElement type) {
+		Elements elements = processingEnv.getElementUtils();
+		records.add(record("package", elements.getPackageOf(type).getQualifiedName()));
+		for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+			if (nested.getModifiers().contains(Modifier.STATIC)) processType(nested);
+		}
+		if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) return;
+
+		Set<String> origins = getOrigins(type);
+		if (origins.isEmpty()) return;
+		String name = elements.getBinaryName(type).toString();
+		for (String origin : origins) records.add(record("listener", name, origin));
+		for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+			AnnotationMirror handler = findAnnotation(method, EVENT_HANDLER);
+			if (handler != null) records.add(handlerRecord(name, method, handler));
+		}
+	}
+
+	/**
+	 * @return the packages through which the type is registered as a listener
+	 */
+	private Set<String> getOrigins(TypeElement type) {
+		Elements elements = processingEnv.getElementUtils();
+		Set<String> origins = new LinkedHashSet<>();
+		PackageElement pkg = elements.getPackageOf(type);
+		if (findAnnotation(type, LISTENER) != null || findAnnotation(pkg, LISTENER) != null) origins.add(pkg.getQualifiedName().toString());
+		for (TypeElement superType = getSuperclass(type); superType != null; superType = getSuperclass(superType)) {
+			PackageElement superPkg = elements.getPackageOf(superType);
+			AnnotationMirror listener = findAnnotation(superType, LISTENER);
+			AnnotationMirror pkgListener = findAnnotation(superPkg, LISTENER);
+			if ((listener != null && includeSubclasses(listener)) || (pkgListener != null && includeSubclasses(pkgListener))) {
+				origins.add(superPkg.getQualifiedName().toString());
+			}
+		}
+		return origins;
+	}
+
+	private String handlerRecord(String listener, ExecutableElement method, AnnotationMirror handler) {
+		Elements elements = processingEnv.getElementUtils();
+		Types types = processingEnv.getTypeUtils();
+		TypeElement eventElement = elements.getTypeElement(EVENT);
+		TypeMirror event = eventElement == null ? null : types.erasure(eventElement.asType());
+
+		List<? extends VariableElement> parameters = method.getParameters();
+		List<String> parameterTypes = new ArrayList<>();
+		for (VariableElement parameter : parameters) parameterTypes.add(getTypeName(parameter.asType()));
+
+		//the event type and parameter instance keys are derived from the method when the handler is created,
+		//so the event parameter is only checked here to report invalid handlers at compile time
+		boolean hasEvent = false;
+		for (int i = 0; i < parameters.size() && !hasEvent; i++) {
+			TypeMirror type = parameters.get(i).asType();
+			hasEvent = (event != null && types.isAssignable(types.erasure(type), event))
+					|| (findAnnotation(parameters.get(i), PARAMETER_INSTANCE) == null && !EVENT_MANAGER.equals(parameterTypes.get(i)));
+		}
+		if (!hasEvent) processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "the method must have an event as a parameter!", method);
+
+		return record("handler", listener,
+				elements.getBinaryName((TypeElement) method.getEnclosingElement()),
+				method.getSimpleName(),
+				String.join(",", parameterTypes),
+				getValue(handler, "priority"),
+				getValue(handler, "ignoreCancelled"),
+				getValue(handler, "async"),
+				//the former event type and keys columns, empty so that parallel stays at its position
+				"",
+				"",
+				getValue(handler, "parallel"));
+	}
+
+	private void write() {
+		if (records.isEmpty()) return;
+		try {
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE);
+			try (Writer writer = file.openWriter()) {
+				for (String record : records) writer.write(record + "\n");
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "cannot write listener index: " + e.getMessage());
+		}
+	}
+
+	private String getTypeName(TypeMirror type) {
+		TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+		if (erased.getKind() == TypeKind.ARRAY) return getTypeName(((ArrayType) erased).getComponentType()) + "[]";
+		if (erased instanceof DeclaredType dt) return processingEnv.getElementUtils().getBinaryName((TypeElement) dt.asElement()).toString();
+		return erased.toString();
+	}
+
+	private TypeElement getSuperclass(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		return superclass instanceof DeclaredType dt ? (TypeElement) dt.asElement() : null;
+	}
+
+	private static AnnotationMirror findAnnotation(Element element, String name) {
+		for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(name)) return mirror;
+		}
+		return null;
+	}
+
+	private Object getValue(AnnotationMirror mirror, String name) {
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(name)) return entry.getValue().getValue();
+		}
+		return null;
+	}
+
+	private boolean includeSubclasses(AnnotationMirror listener) {
+		return Boolean.TRUE.equals(getValue(listener, "includeSubclasses"));
+	}
+
+	private static String record(Object... values) {
+		StringJoiner joiner = new StringJoiner("\t");
+		for (Object value : values) joiner.add(String.valueOf(value));
+		return joiner.toString();
+	}
+}
@@ -0,0 +1,56 @@
+package de.cyklon.jevent.benchmark;
+
+import de.cyklon.jevent.CancellableEvent;
+import de.cyklon.jevent.EventHandler;
+import de.cyklon.jevent.EventManager;
+import de.cyklon.jevent.JEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code callEvent} for a cancellable event that is cancelled by the first of 100 handlers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CancellableBenchmark {
+	private static final int HANDLERS = 100;
+
+	public static class BenchEvent extends CancellableEvent {
+		private final boolean cancel;
+
+		public BenchEvent(boolean cancel) {
+			this.cancel = cancel;
+		}
+	}
+
+	/**
+	 * the number of handlers after the cancelling handler, that are called for cancelled events
+	 */
+	@Param({"0", "10", "99"})
+	public int ignoreCancelled;
+
+	private EventManager manager;
+
+	@Setup
+	public void setup(Blackhole bh) {
+		manager = JEvent.createManager();
+		manager.registerHandler(BenchEvent.class, e -> e.setCancelled(e.cancel), EventHandler.HIGHEST, false);
+		for (int i = 1; i < HANDLERS; i++) manager.registerHandler(BenchEvent.class, bh::consume, EventHandler.NORMAL, i <= ignoreCancelled);
+	}
+
+	@Benchmark
+	public boolean cancelled() {
+		return manager.callEvent(new BenchEvent(true));
+	}
+
+	@Benchmark
+	public boolean notCancelled() {
+		return manager.callEvent(new BenchEvent(false));
+	}
+}
@@ -0,0 +1,40 @@
+package de.cyklon.jevent.benchmark;
+
+import de.cyklon.jevent.Event;
+import de.cyklon.jevent.EventManager;
+import de.cyklon.jevent.JEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code callEvent} on a concurrent EventManager from several threads at once
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentDispatchBenchmark {
+	private static final int HANDLERS = 10;
+
+	public static class BenchEvent extends Event {
+	}
+
+	private EventManager manager;
+	private final BenchEvent event = new BenchEvent();
+
+	@Setup
+	public void setup(Blackhole bh) {
+		manager = JEvent.createConcurrentManager();
+		for (int i = 0; i < HANDLERS; i++) manager.registerHandler(BenchEvent.class, bh::consume);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean callEvent() {
+		return manager.callEvent(event);
+	}
+}
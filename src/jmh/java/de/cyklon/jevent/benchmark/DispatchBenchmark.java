@@ -0,0 +1,41 @@
+package de.cyklon.jevent.benchmark;
+
+import de.cyklon.jevent.Event;
+import de.cyklon.jevent.EventManager;
+import de.cyklon.jevent.JEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code callEvent} depending on the number of handlers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+	public static class BenchEvent extends Event {
+	}
+
+	@Param({"1", "10", "100", "1000"})
+	public int handlers;
+
+	private EventManager manager;
+	private final BenchEvent event = new BenchEvent();
+
+	@Setup
+	public void setup(Blackhole bh) {
+		manager = JEvent.createManager();
+		for (int i = 0; i < handlers; i++) manager.registerHandler(BenchEvent.class, bh::consume);
+	}
+
+	@Benchmark
+	public boolean callEvent() {
+		return manager.callEvent(event);
+	}
+}
@@ -0,0 +1,106 @@
+package de.cyklon.jevent.benchmark;
+
+import de.cyklon.jevent.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code callEvent} for a single handler of each kind: method handler, raw handler, wrapped handler and method handler with parameter instances
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerBenchmark {
+
+	public static class BenchEvent extends Event {
+	}
+
+	public record Payload(int value) {
+	}
+
+	public static class MethodListener {
+		private final Blackhole bh;
+
+		public MethodListener(Blackhole bh) {
+			this.bh = bh;
+		}
+
+		@EventHandler
+		public void onEvent(BenchEvent event) {
+			bh.consume(event);
+		}
+	}
+
+	public static class ParameterListener {
+		private final Blackhole bh;
+
+		public ParameterListener(Blackhole bh) {
+			this.bh = bh;
+		}
+
+		@EventHandler
+		public void onEvent(BenchEvent event, @ParameterInstance("first") String first, @ParameterInstance("second") Integer second, EventManager manager) {
+			bh.consume(event);
+			bh.consume(first);
+			bh.consume(second);
+			bh.consume(manager);
+		}
+	}
+
+	private EventManager methodManager;
+	private EventManager rawManager;
+	private EventManager wrappedManager;
+	private EventManager parameterManager;
+	private final BenchEvent event = new BenchEvent();
+	private final Payload payload = new Payload(42);
+
+	@Setup
+	public void setup(Blackhole bh) {
+		methodManager = JEvent.createManager();
+		methodManager.registerListener(new MethodListener(bh));
+
+		rawManager = JEvent.createManager();
+		rawManager.registerHandler(BenchEvent.class, bh::consume);
+
+		wrappedManager = JEvent.createManager();
+		wrappedManager.registerWrappedHandler(Payload.class, bh::consume);
+
+		parameterManager = JEvent.createManager();
+		parameterManager.registerParameterInstance("first", "value");
+		parameterManager.registerParameterInstance("second", 42);
+		parameterManager.registerListener(new ParameterListener(bh));
+	}
+
+	@Benchmark
+	public boolean methodHandler() {
+		return methodManager.callEvent(event);
+	}
+
+	@Benchmark
+	public boolean rawHandler() {
+		return rawManager.callEvent(event);
+	}
+
+	/**
+	 * includes the allocation of the {@link WrappedEvent}
+	 */
+	@Benchmark
+	public boolean wrappedHandler() {
+		return wrappedManager.callEvent(new WrappedEvent<>(payload));
+	}
+
+	@Benchmark
+	public boolean wrappedObject() {
+		return wrappedManager.callObject(payload);
+	}
+
+	@Benchmark
+	public boolean parameterInstances() {
+		return parameterManager.callEvent(event);
+	}
+}
@@ -0,0 +1,55 @@
+package de.cyklon.jevent.benchmark;
+
+import de.cyklon.jevent.Event;
+import de.cyklon.jevent.EventManager;
+import de.cyklon.jevent.JEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code callEvent} for an event whose superclasses all have a handler
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HierarchyBenchmark {
+
+	public static class Level0 extends Event {}
+	public static class Level1 extends Level0 {}
+	public static class Level2 extends Level1 {}
+	public static class Level3 extends Level2 {}
+	public static class Level4 extends Level3 {}
+	public static class Level5 extends Level4 {}
+	public static class Level6 extends Level5 {}
+	public static class Level7 extends Level6 {}
+	public static class Level8 extends Level7 {}
+
+	private static final List<Class<? extends Event>> LEVELS = List.of(Level0.class, Level1.class, Level2.class, Level3.class, Level4.class, Level5.class, Level6.class, Level7.class, Level8.class);
+
+	/**
+	 * the depth of the called event below {@link Level0}
+	 */
+	@Param({"0", "2", "4", "8"})
+	public int depth;
+
+	private EventManager manager;
+	private Event event;
+
+	@Setup
+	public void setup(Blackhole bh) throws ReflectiveOperationException {
+		manager = JEvent.createManager();
+		for (int i = 0; i <= depth; i++) manager.registerHandler(LEVELS.get(i), bh::consume);
+		event = LEVELS.get(depth).getConstructor().newInstance();
+	}
+
+	@Benchmark
+	public boolean callEvent() {
+		return manager.callEvent(event);
+	}
+}
@@ -0,0 +1,58 @@
+package de.cyklon.jevent.benchmark;
+
+import de.cyklon.jevent.Event;
+import de.cyklon.jevent.EventManager;
+import de.cyklon.jevent.JEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@code callEvent} with a key against handlers that filter the key themselves, with one handler per key
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyedBenchmark {
+
+	public static class BenchEvent extends Event {
+		private final Integer key;
+
+		public BenchEvent(Integer key) {
+			this.key = key;
+		}
+	}
+
+	@Param({"1", "100", "1000"})
+	public int keys;
+
+	private EventManager keyed;
+	private EventManager filtered;
+
+	@Setup
+	public void setup(Blackhole bh) {
+		keyed = JEvent.createManager();
+		filtered = JEvent.createManager();
+		for (int i = 0; i < keys; i++) {
+			Integer key = i;
+			keyed.registerHandler(BenchEvent.class, key, bh::consume);
+			filtered.registerHandler(BenchEvent.class, e -> {
+				if (e.key.equals(key)) bh.consume(e);
+			});
+		}
+	}
+
+	@Benchmark
+	public boolean keyed() {
+		return keyed.callEvent(new BenchEvent(0), 0);
+	}
+
+	@Benchmark
+	public boolean filtered() {
+		return filtered.callEvent(new BenchEvent(0));
+	}
+}
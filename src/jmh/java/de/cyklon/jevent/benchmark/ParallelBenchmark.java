@@ -0,0 +1,55 @@
+package de.cyklon.jevent.benchmark;
+
+import de.cyklon.jevent.Event;
+import de.cyklon.jevent.EventManager;
+import de.cyklon.jevent.JEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sequential and parallel {@code callEvent} for CPU heavy handlers of the same priority
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelBenchmark {
+	private static final int HANDLERS = 8;
+
+	public static class BenchEvent extends Event {
+	}
+
+	/**
+	 * the work per handler, in {@link Blackhole#consumeCPU(long) tokens}
+	 */
+	@Param({"1000", "100000"})
+	public long work;
+
+	private EventManager sequential;
+	private EventManager parallel;
+
+	@Setup
+	public void setup() {
+		sequential = JEvent.createManager();
+		parallel = JEvent.createManager();
+		parallel.setParallel(BenchEvent.class, true);
+		for (int i = 0; i < HANDLERS; i++) {
+			sequential.registerHandler(BenchEvent.class, e -> Blackhole.consumeCPU(work));
+			parallel.registerHandler(BenchEvent.class, e -> Blackhole.consumeCPU(work));
+		}
+	}
+
+	@Benchmark
+	public boolean sequential() {
+		return sequential.callEvent(new BenchEvent());
+	}
+
+	@Benchmark
+	public boolean parallel() {
+		return parallel.callEvent(new BenchEvent());
+	}
+}
@@ -0,0 +1,72 @@
+package de.cyklon.jevent.benchmark;
+
+import de.cyklon.jevent.Event;
+import de.cyklon.jevent.EventHandler;
+import de.cyklon.jevent.EventManager;
+import de.cyklon.jevent.JEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of registering and unregistering listeners and handlers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationBenchmark {
+
+	public static class BenchEvent extends Event {
+	}
+
+	public static class BenchListener {
+		@EventHandler
+		public void onEvent(BenchEvent event) {
+		}
+
+		@EventHandler(priority = EventHandler.HIGH)
+		public void onEventHigh(BenchEvent event) {
+		}
+	}
+
+	/**
+	 * the number of handlers that are already registered for the event
+	 */
+	@Param({"0", "1000"})
+	public int registered;
+
+	private final BenchListener listener = new BenchListener();
+	private EventManager manager;
+
+	@Setup
+	public void setup(Blackhole bh) {
+		manager = JEvent.createManager();
+		for (int i = 0; i < registered; i++) manager.registerHandler(BenchEvent.class, bh::consume);
+		//resolves the cached handlers of the event, which are updated on every registration
+		manager.callEvent(new BenchEvent());
+	}
+
+	@Benchmark
+	public void registerListener() {
+		manager.registerListener(listener).close();
+	}
+
+	@Benchmark
+	public void registerHandler(Blackhole bh) {
+		manager.registerHandler(BenchEvent.class, bh::consume).close();
+	}
+
+	/**
+	 * a new manager, registration followed by the first call, which resolves the handlers of the event class
+	 */
+	@Benchmark
+	public boolean registerAndCall(Blackhole bh) {
+		EventManager manager = JEvent.createManager();
+		manager.registerHandler(BenchEvent.class, bh::consume);
+		return manager.callEvent(new BenchEvent());
+	}
+}
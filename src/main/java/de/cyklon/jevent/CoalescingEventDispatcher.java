@@ -0,0 +1,194 @@
+package de.cyklon.jevent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Merges events of high frequency types, that are dispatched within a time window, into one event that is called on an {@link EventManager}
+ * <p>
+ * The first dispatched event of a coalesced type (and key) opens a window. All events of the type and key dispatched until the window closes
+ * are merged into the pending event, by default the latest event replaces the previous one.
+ * When the window closes, only the merged event is {@link EventManager#callEvent(Event) called}, on the thread of the dispatcher.
+ * Events of types that are not registered for coalescing are called immediately on the dispatching thread.
+ * <pre>{@code
+ *  CoalescingEventDispatcher dispatcher = CoalescingEventDispatcher.create(manager, Duration.ofMillis(50));
+ *  dispatcher.registerCoalescing(PlayerMoveEvent.class, PlayerMoveEvent::getPlayerId);
+ *  dispatcher.dispatch(new PlayerMoveEvent(player));
+ * }</pre>
+ */
+public final class CoalescingEventDispatcher implements AutoCloseable {
+
+	/**
+	 * creates a new dispatcher
+	 *
+	 * @param manager the EventManager on which the events are called
+	 * @param window the time after the first event of a type and key, in which further events are merged into it
+	 * @return the new dispatcher
+	 */
+	@NotNull
+	public static CoalescingEventDispatcher create(@NotNull EventManager manager, @NotNull Duration window) {
+		if (window.isNegative() || window.isZero()) throw new IllegalArgumentException("window must be positive");
+		return new CoalescingEventDispatcher(manager, window.toNanos());
+	}
+
+	private static final Coalescing NOT_COALESCED = new Coalescing(Event.class, e -> null, (previous, latest) -> latest);
+
+	private final EventManager manager;
+	private final long window;
+	private final ScheduledExecutorService scheduler;
+
+	private final Map<Class<?>, Coalescing> coalescings = new ConcurrentHashMap<>();
+	/**
+	 * the resolved coalescing per concrete event class, cleared whenever a coalescing is registered
+	 */
+	private final Map<Class<?>, Coalescing> coalescingCache = new ConcurrentHashMap<>();
+	private final Map<PendingKey, Pending> pending = new ConcurrentHashMap<>();
+
+	private CoalescingEventDispatcher(EventManager manager, long window) {
+		this.manager = manager;
+		this.window = window;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "JEvent-coalescer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * registers an event class or interface and all its subtypes for coalescing, the latest event of a window is called
+	 *
+	 * @param event the event class or an interface implemented by events
+	 * @param <T> the event type
+	 */
+	public <T> void registerCoalescing(@NotNull Class<T> event) {
+		registerCoalescing(event, e -> null, (previous, latest) -> latest);
+	}
+
+	/**
+	 * registers an event class or interface and all its subtypes for coalescing per key, the latest event of a key and window is called
+	 *
+	 * @param event the event class or an interface implemented by events
+	 * @param keyExtractor the function that returns the key of an event, events with different keys are not merged
+	 * @param <T> the event type
+	 */
+	public <T> void registerCoalescing(@NotNull Class<T> event, @NotNull Function<? super T, ?> keyExtractor) {
+		registerCoalescing(event, keyExtractor, (previous, latest) -> latest);
+	}
+
+	/**
+	 * registers an event class or interface and all its subtypes for coalescing per key
+	 * <p>
+	 * A coalescing registered for a subclass takes precedence over the one of its superclass, and those of superclasses over those of interfaces.
+	 * Events are only merged with events of the type the coalescing is registered for.
+	 *
+	 * @param event the event class or an interface implemented by events
+	 * @param keyExtractor the function that returns the key of an event or null, events with different keys are not merged
+	 * @param merge the function that merges the pending event with a newly dispatched event into the event to be called, it must return an {@link Event}
+	 * @param <T> the event type
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> void registerCoalescing(@NotNull Class<T> event, @NotNull Function<? super T, ?> keyExtractor, @NotNull BinaryOperator<T> merge) {
+		coalescings.put(event, new Coalescing(event, (Function<? super Event, ?>) keyExtractor, (BinaryOperator<Event>) merge));
+		coalescingCache.clear();
+	}
+
+	/**
+	 * dispatches the event. If its type is coalesced, it is merged into the pending event of its type and key.
+	 * After the dispatcher is closed, all events are called immediately
+	 *
+	 * @param event the event to be executed
+	 * @return a future that is completed with whether the (merged) event was canceled, once all handlers are executed
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> dispatch(@NotNull Event event) {
+		Coalescing coalescing = coalescingCache.computeIfAbsent(event.getClass(), this::findCoalescing);
+		if (coalescing == NOT_COALESCED || scheduler.isShutdown()) return callEvent(event);
+		PendingKey key = new PendingKey(coalescing.type, coalescing.keyExtractor.apply(event));
+		Pending result = pending.compute(key, (k, p) -> {
+			if (p == null) {
+				p = new Pending(event);
+				Pending scheduled = p;
+				try {
+					scheduler.schedule(() -> flush(k, scheduled), window, TimeUnit.NANOSECONDS);
+				} catch (RejectedExecutionException e) {
+					//closed concurrently, the event is called immediately
+					return null;
+				}
+			}
+			else p.event = coalescing.merge.apply(p.event, event);
+			return p;
+		});
+		return result == null ? callEvent(event) : result.future;
+	}
+
+	private Coalescing findCoalescing(Class<?> type) {
+		for (Class<?> c : TypeHierarchy.getSupertypes(type)) {
+			Coalescing coalescing = coalescings.get(c);
+			if (coalescing != null) return coalescing;
+		}
+		return NOT_COALESCED;
+	}
+
+	private void flush(PendingKey key, Pending p) {
+		//events dispatched after the removal open a new window
+		if (!pending.remove(key, p)) return;
+		try {
+			p.future.complete(manager.callEvent(p.event));
+		} catch (Throwable t) {
+			p.future.completeExceptionally(t);
+		}
+	}
+
+	private CompletableFuture<Boolean> callEvent(Event event) {
+		try {
+			return CompletableFuture.completedFuture(manager.callEvent(event));
+		} catch (Throwable t) {
+			return CompletableFuture.failedFuture(t);
+		}
+	}
+
+	/**
+	 * calls all pending events immediately, without waiting for their windows to close
+	 */
+	public void flush() {
+		pending.forEach(this::flush);
+	}
+
+	/**
+	 * @return the number of merged events that are waiting for their window to close
+	 */
+	public int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * calls all pending events and stops the dispatcher
+	 */
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+		flush();
+	}
+
+	/**
+	 * @param type the class the coalescing is registered for
+	 */
+	private record Coalescing(Class<?> type, Function<? super Event, ?> keyExtractor, BinaryOperator<Event> merge) {}
+
+	private record PendingKey(Class<?> type, @Nullable Object key) {}
+
+	private static final class Pending {
+		private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+		private volatile Event event;
+
+		private Pending(Event event) {
+			this.event = event;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package de.cyklon.jevent;
+
+import jdk.jfr.*;
+
+/**
+ * The JFR event recorded for every event called by a {@link JEvent} EventManager
+ * <p>
+ * It is disabled by default, enable {@code de.cyklon.jevent.Dispatch} in the JFR settings to record it.
+ */
+@Name("de.cyklon.jevent.Dispatch")
+@Label("Event Dispatch")
+@Description("An event called on an EventManager")
+@Category("JEvent")
+@Enabled(false)
+@StackTrace(false)
+final class DispatchFlightEvent extends jdk.jfr.Event {
+	@Label("Event Class")
+	Class<?> eventClass;
+	@Label("Handlers")
+	int handlers;
+	@Label("Cancelled")
+	boolean cancelled;
+
+	void commit(Class<?> eventClass, int handlers, boolean cancelled) {
+		if (!isEnabled()) return;
+		end();
+		if (!shouldCommit()) return;
+		this.eventClass = eventClass;
+		this.handlers = handlers;
+		this.cancelled = cancelled;
+		commit();
+	}
+}
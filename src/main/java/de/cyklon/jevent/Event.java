@@ -6,11 +6,22 @@ import org.jetbrains.annotations.Nullable;
 /**
  * The base class of all Events.
  * Extend this class to create your own event
+ * <p>
+ * An event has no state apart from an optional custom name, so constructing an event is as cheap as constructing a plain object.
+ * Without a custom name, the name is only computed when it is read and is then cached per event class.
  */
 public abstract class Event {
+	private static final ClassValue<String> NAMES = new ClassValue<>() {
+		@Override
+		protected String computeValue(@NotNull Class<?> type) {
+			return type.getSimpleName();
+		}
+	};
+
 	/**
-	 * the event name
+	 * the custom event name, or null to use the class name
 	 */
+	@Nullable
 	private final String name;
 
 	/**
@@ -26,7 +37,7 @@ public abstract class Event {
 	 * @param name the event name. If it is null, it is set to the class name
 	 */
 	protected Event(@Nullable String name) {
-		this.name = name == null ? this.getClass().getSimpleName() : name;
+		this.name = name;
 	}
 
 	/**
@@ -45,7 +56,7 @@ public abstract class Event {
 	 */
 	@NotNull
 	public String getEventName() {
-		return name;
+		return name == null ? NAMES.get(getClass()) : name;
 	}
 
 	@Override
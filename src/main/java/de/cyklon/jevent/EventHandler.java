@@ -35,4 +35,26 @@ public @interface EventHandler {
 	 * @return whether canceled events should be ignored
 	 */
 	boolean ignoreCancelled() default false;
+
+	/**
+	 * Define if the handler is executed asynchronously.
+	 * <p>
+	 * Async handlers are submitted to the {@link EventManager#getAsyncExecutor() async executor} when it is their turn and the event call does not wait for them.
+	 * Therefore, they cannot cancel the event for the following handlers and should only observe the event.
+	 *
+	 * @return whether the handler is executed asynchronously
+	 */
+	boolean async() default false;
+
+	/**
+	 * Define if the handler is executed in parallel with the other parallel handlers of the same priority.
+	 * <p>
+	 * Only applies to events that are not {@link Cancellable}, as handlers of the same priority cannot depend on each other then.
+	 * The event call still waits for all handlers of a priority, before the handlers of the next priority are executed.
+	 * Parallel handlers must be thread safe, as they may access the event at the same time.
+	 *
+	 * @return whether the handler is executed in parallel
+	 * @see EventManager#setParallel(Class, boolean)
+	 */
+	boolean parallel() default false;
 }
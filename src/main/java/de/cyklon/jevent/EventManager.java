@@ -5,7 +5,10 @@ import de.cyklon.reflection.entities.ReflectClass;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
@@ -25,12 +28,68 @@ public sealed interface EventManager permits JEvent {
 	 */
 	boolean internalEventsEnabled();
 
+	/**
+	 * Can only be activated when created
+	 * <p>
+	 * Events can be called from multiple threads at the same time on every EventManager.
+	 * Only (un)registering listeners, handlers and parameter instances while events are called on other threads requires a concurrent EventManager.
+	 * @return true if this EventManager can be used from multiple threads at the same time
+	 * @see JEvent#createConcurrentManager(boolean)
+	 */
+	boolean isConcurrent();
+
+	/**
+	 * creates a child EventManager, for example for an isolated room or session
+	 * <p>
+	 * Events called on the child are executed on the handlers of the child and of this EventManager (and its parents), in order of their priority.
+	 * Handlers (un)registered on this EventManager later are applied to the child as well, while handlers registered on the child are not visible to this EventManager.
+	 * The child uses the same internal events and concurrency setting as this EventManager.
+	 * <pre>{@code
+	 *  EventManager room = manager.createChild();
+	 *  room.registerListener(new RoomListener());
+	 *  room.callEvent(new MyEvent()); //calls the handlers of manager and room
+	 *  room.destroy(); //unregisters all handlers of room
+	 * }</pre>
+	 *
+	 * @return the new child
+	 */
+	@NotNull
+	EventManager createChild();
+
+	/**
+	 * @return the EventManager this EventManager was {@link #createChild() created} from, or null if it is no child or destroyed
+	 */
+	@Nullable
+	EventManager getParent();
+
+	/**
+	 * unregisters all handlers of this EventManager at once and destroys all of its children
+	 * <p>
+	 * A destroyed child is detached from its parent and does not call the handlers of its parent anymore.
+	 */
+	void destroy();
+
 	/**
 	 * registers all {@link MethodHandler EventHandlers} in the listener Class
 	 *
 	 * @param obj the object from which events are to be registered
+	 * @return the subscription of the registered handlers
 	 */
-	void registerListener(@NotNull Object obj);
+	@NotNull
+	Subscription registerListener(@NotNull Object obj);
+
+	/**
+	 * registers all {@link MethodHandler EventHandlers} in the listener Class, but only keeps a weak reference to the listener
+	 * <p>
+	 * The listener does not have to be unregistered: once it is garbage collected, its handlers are no longer called
+	 * and are removed the next time an event is called or a handler is registered.
+	 * Something else must keep a strong reference to the listener as long as it should receive events.
+	 *
+	 * @param obj the object from which events are to be registered
+	 * @return the subscription of the registered handlers
+	 */
+	@NotNull
+	Subscription registerWeakListener(@NotNull Object obj);
 
 
 	/**
@@ -38,36 +97,92 @@ public sealed interface EventManager permits JEvent {
 	 * <p>
 	 * The class must have a no args constructor.
 	 * @param clazz the class from which events are to be registered
+	 * @return the subscription of the registered handlers
 	 */
-	void registerListener(@NotNull Class<?> clazz);
+	@NotNull
+	Subscription registerListener(@NotNull Class<?> clazz);
 
 	/**
 	 * registers all {@link MethodHandler EventHandlers} in the listener Class
 	 * <p>
 	 * The class must have a no args constructor.
 	 * @param clazz the class from which events are to be registered
+	 * @return the subscription of the registered handlers
 	 */
-	void registerListener(@NotNull ReflectClass<?> clazz);
+	@NotNull
+	Subscription registerListener(@NotNull ReflectClass<?> clazz);
 
 	/**
 	 * registers a package as Listener package.
 	 * <p>
 	 * In a listener package, every class that is annotated with {@link Listener} is registered as a listener
+	 * <p>
+	 * If the package was compiled with the JEvent annotation processor, the listeners and their handler methods are taken from its index
+	 * instead of scanning the package at runtime.
 	 *
 	 * @param packageName the name of the package to be registered as a listener package
 	 */
 	default void registerListenerPackage(@NotNull String packageName) {
-		registerListenerPackage(OfflinePackage.get(packageName));
+		registerListenerPackage(packageName, false);
+	}
+
+	/**
+	 * registers a package as Listener package.
+	 * <p>
+	 * In a listener package, every class that is annotated with {@link Listener} is registered as a listener
+	 * <p>
+	 * If the package was compiled with the JEvent annotation processor, the listeners and their handler methods are taken from its index
+	 * instead of scanning the package at runtime.
+	 * <p>
+	 * If parallel is true, the listener classes are processed on the common fork/join pool.
+	 * With an index, they are also loaded there, without one the package is first loaded recursively on the calling thread.
+	 * Either way, the handlers of the package are added in one update of each handler list,
+	 * so that no event is called with only a part of the handlers of its event class.
+	 *
+	 * @param packageName the name of the package to be registered as a listener package
+	 * @param parallel whether the listeners are processed in parallel
+	 */
+	void registerListenerPackage(@NotNull String packageName, boolean parallel);
+
+	/**
+	 * registers a package as Listener package.
+	 * <p>
+	 * In a listener package, every class that is annotated with {@link Listener} is registered as a listener
+	 *
+	 * @param pkg the package
+	 */
+	default void registerListenerPackage(@NotNull OfflinePackage pkg) {
+		registerListenerPackage(pkg, false);
 	}
 
 	/**
 	 * registers a package as Listener package.
 	 * <p>
 	 * In a listener package, every class that is annotated with {@link Listener} is registered as a listener
+	 * <p>
+	 * If parallel is true, the listener classes are instantiated and inspected on the common fork/join pool.
+	 * The package itself is loaded recursively on the calling thread beforehand.
+	 * Either way, the handlers of the package are added in one update of each handler list,
+	 * so that no event is called with only a part of the handlers of its event class.
 	 *
 	 * @param pkg the package
+	 * @param parallel whether the listeners are processed in parallel
+	 */
+	void registerListenerPackage(@NotNull OfflinePackage pkg, boolean parallel);
+
+	/**
+	 * registers a listener for a specific event, with a consumer instead of a method
+	 *
+	 * @param event the event for which the listener is to be registered
+	 * @param handler The consumer to be executed when the event is called
+	 * @param priority the event {@link EventHandler#priority() priority}
+	 * @param ignoreCancelled if true, the handler is not called for {@link EventHandler#ignoreCancelled() canceled events}
+	 * @param async if true, the handler is executed {@link EventHandler#async() asynchronously}
+	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
 	 */
-	void registerListenerPackage(@NotNull OfflinePackage pkg);
+	@NotNull
+	<T extends Event> Subscription registerHandler(@NotNull Class<T> event, @NotNull Consumer<T> handler, byte priority, boolean ignoreCancelled, boolean async);
 
 	/**
 	 * registers a listener for a specific event, with a consumer instead of a method
@@ -77,8 +192,12 @@ public sealed interface EventManager permits JEvent {
 	 * @param priority the event {@link EventHandler#priority() priority}
 	 * @param ignoreCancelled if true, the handler is not called for {@link EventHandler#ignoreCancelled() canceled events}
 	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
 	 */
-	<T extends Event> void registerHandler(@NotNull Class<T> event, @NotNull Consumer<T> handler, byte priority, boolean ignoreCancelled);
+	@NotNull
+	default <T extends Event> Subscription registerHandler(@NotNull Class<T> event, @NotNull Consumer<T> handler, byte priority, boolean ignoreCancelled) {
+		return registerHandler(event, handler, priority, ignoreCancelled, false);
+	}
 
 	/**
 	 * registers a listener for a specific event, with a consumer instead of a method
@@ -87,9 +206,11 @@ public sealed interface EventManager permits JEvent {
 	 * @param handler The consumer to be executed when the event is called
 	 * @param priority the event {@link EventHandler#priority() priority}
 	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
 	 */
-	default <T extends Event> void registerHandler(@NotNull Class<T> event, @NotNull Consumer<T> handler, byte priority) {
-		registerHandler(event, handler, priority, false);
+	@NotNull
+	default <T extends Event> Subscription registerHandler(@NotNull Class<T> event, @NotNull Consumer<T> handler, byte priority) {
+		return registerHandler(event, handler, priority, false);
 	}
 
 	/**
@@ -99,9 +220,11 @@ public sealed interface EventManager permits JEvent {
 	 * @param handler The consumer to be executed when the event is called
 	 * @param ignoreCancelled if true, the handler is not called for {@link EventHandler#ignoreCancelled() canceled events}
 	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
 	 */
-	default <T extends Event> void registerHandler(@NotNull Class<T> event, @NotNull Consumer<T> handler, boolean ignoreCancelled) {
-		registerHandler(event, handler, EventHandler.NORMAL, ignoreCancelled);
+	@NotNull
+	default <T extends Event> Subscription registerHandler(@NotNull Class<T> event, @NotNull Consumer<T> handler, boolean ignoreCancelled) {
+		return registerHandler(event, handler, EventHandler.NORMAL, ignoreCancelled);
 	}
 
 	/**
@@ -110,21 +233,82 @@ public sealed interface EventManager permits JEvent {
 	 * @param event the event for which the listener is to be registered
 	 * @param handler The consumer to be executed when the event is called
 	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
+	 */
+	@NotNull
+	default <T extends Event> Subscription registerHandler(@NotNull Class<T> event, @NotNull Consumer<T> handler) {
+		return registerHandler(event, handler, EventHandler.NORMAL, false);
+	}
+
+	/**
+	 * registers a listener for a specific event and key, with a consumer instead of a method
+	 * <p>
+	 * The handler is only called for events called with an equal key by {@link #callEvent(Event, Object)},
+	 * together with the handlers registered without a key, in order of their priority.
+	 * Keyed handlers are looked up by the hash of the key, so many handlers of the same event type with different keys do not slow down each other.
+	 *
+	 * @param event the event for which the listener is to be registered
+	 * @param key the key, for example a world or channel id
+	 * @param handler The consumer to be executed when the event is called
+	 * @param priority the event {@link EventHandler#priority() priority}
+	 * @param ignoreCancelled if true, the handler is not called for {@link EventHandler#ignoreCancelled() canceled events}
+	 * @param async if true, the handler is executed {@link EventHandler#async() asynchronously}
+	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
+	 */
+	@NotNull
+	<T extends Event> Subscription registerHandler(@NotNull Class<T> event, @NotNull Object key, @NotNull Consumer<T> handler, byte priority, boolean ignoreCancelled, boolean async);
+
+	/**
+	 * registers a listener for a specific event and key, with a consumer instead of a method
+	 *
+	 * @param event the event for which the listener is to be registered
+	 * @param key the key, for example a world or channel id
+	 * @param handler The consumer to be executed when the event is called
+	 * @param priority the event {@link EventHandler#priority() priority}
+	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
+	 * @see #registerHandler(Class, Object, Consumer, byte, boolean, boolean)
+	 */
+	@NotNull
+	default <T extends Event> Subscription registerHandler(@NotNull Class<T> event, @NotNull Object key, @NotNull Consumer<T> handler, byte priority) {
+		return registerHandler(event, key, handler, priority, false, false);
+	}
+
+	/**
+	 * registers a listener for a specific event and key, with a consumer instead of a method
+	 *
+	 * @param event the event for which the listener is to be registered
+	 * @param key the key, for example a world or channel id
+	 * @param handler The consumer to be executed when the event is called
+	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
+	 * @see #registerHandler(Class, Object, Consumer, byte, boolean, boolean)
 	 */
-	default <T extends Event> void registerHandler(@NotNull Class<T> event, @NotNull Consumer<T> handler) {
-		registerHandler(event, handler, EventHandler.NORMAL, false);
+	@NotNull
+	default <T extends Event> Subscription registerHandler(@NotNull Class<T> event, @NotNull Object key, @NotNull Consumer<T> handler) {
+		return registerHandler(event, key, handler, EventHandler.NORMAL);
 	}
 
 	/**
 	 * registers a listener for a specific event, with a consumer instead of a method
+	 * <p>
+	 * The type can be any class or interface. The handler is called with every {@link WrappedEvent} or {@link #callObject(Object) object} of the type,
+	 * and with every event that extends or implements the type, for example all {@link Cancellable} events:
+	 * <pre>{@code
+	 *  manager.registerWrappedHandler(Cancellable.class, c -> c.setCancelled(true));
+	 * }</pre>
 	 *
 	 * @param event the event for which the listener is to be registered
 	 * @param handler The consumer to be executed when the event is called
 	 * @param priority the event {@link EventHandler#priority() priority}
 	 * @param ignoreCancelled if true, the handler is not called for {@link EventHandler#ignoreCancelled() canceled events}
+	 * @param async if true, the handler is executed {@link EventHandler#async() asynchronously}
 	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
 	 */
-	<T> void registerWrappedHandler(@NotNull Class<T> event, Consumer<T> handler, byte priority, boolean ignoreCancelled);
+	@NotNull
+	<T> Subscription registerWrappedHandler(@NotNull Class<T> event, Consumer<T> handler, byte priority, boolean ignoreCancelled, boolean async);
 
 	/**
 	 * registers a listener for a specific event, with a consumer instead of a method
@@ -132,10 +316,27 @@ public sealed interface EventManager permits JEvent {
 	 * @param event the event for which the listener is to be registered
 	 * @param handler The consumer to be executed when the event is called
 	 * @param priority the event {@link EventHandler#priority() priority}
+	 * @param ignoreCancelled if true, the handler is not called for {@link EventHandler#ignoreCancelled() canceled events}
 	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
 	 */
-	default <T> void registerWrappedHandler(@NotNull Class<T> event, Consumer<T> handler, byte priority) {
-		registerWrappedHandler(event, handler, priority, false);
+	@NotNull
+	default <T> Subscription registerWrappedHandler(@NotNull Class<T> event, Consumer<T> handler, byte priority, boolean ignoreCancelled) {
+		return registerWrappedHandler(event, handler, priority, ignoreCancelled, false);
+	}
+
+	/**
+	 * registers a listener for a specific event, with a consumer instead of a method
+	 *
+	 * @param event the event for which the listener is to be registered
+	 * @param handler The consumer to be executed when the event is called
+	 * @param priority the event {@link EventHandler#priority() priority}
+	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
+	 */
+	@NotNull
+	default <T> Subscription registerWrappedHandler(@NotNull Class<T> event, Consumer<T> handler, byte priority) {
+		return registerWrappedHandler(event, handler, priority, false);
 	}
 
 	/**
@@ -145,9 +346,11 @@ public sealed interface EventManager permits JEvent {
 	 * @param handler The consumer to be executed when the event is called
 	 * @param ignoreCancelled if true, the handler is not called for {@link EventHandler#ignoreCancelled() canceled events}
 	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
 	 */
-	default <T> void registerWrappedHandler(@NotNull Class<T> event, Consumer<T> handler, boolean ignoreCancelled) {
-		registerWrappedHandler(event, handler, EventHandler.NORMAL, ignoreCancelled);
+	@NotNull
+	default <T> Subscription registerWrappedHandler(@NotNull Class<T> event, Consumer<T> handler, boolean ignoreCancelled) {
+		return registerWrappedHandler(event, handler, EventHandler.NORMAL, ignoreCancelled);
 	}
 
 	/**
@@ -156,9 +359,11 @@ public sealed interface EventManager permits JEvent {
 	 * @param event the event for which the listener is to be registered
 	 * @param handler The consumer to be executed when the event is called
 	 * @param <T> the event type
+	 * @return the subscription of the registered handlers
 	 */
-	default <T> void registerWrappedHandler(@NotNull Class<T> event, Consumer<T> handler) {
-		registerWrappedHandler(event, handler, EventHandler.NORMAL, false);
+	@NotNull
+	default <T> Subscription registerWrappedHandler(@NotNull Class<T> event, Consumer<T> handler) {
+		return registerWrappedHandler(event, handler, EventHandler.NORMAL, false);
 	}
 
 	/**
@@ -181,6 +386,134 @@ public sealed interface EventManager permits JEvent {
 	 */
 	boolean callEvent(@NotNull Event event);
 
+	/**
+	 * calls the passed event for a key. In addition to the handlers of {@link #callEvent(Event)},
+	 * the handlers {@link #registerHandler(Class, Object, Consumer, byte, boolean, boolean) registered for the key} are executed, in order of their priority
+	 *
+	 * @param event the event to be executed
+	 * @param key the key of the event
+	 * @return Whether the event was canceled
+	 */
+	boolean callEvent(@NotNull Event event, @NotNull Object key);
+
+	/**
+	 * calls a plain object on all wrapped handlers registered for its class, a superclass or an interface of it
+	 * <p>
+	 * Unlike calling a {@link WrappedEvent}, the object is passed to the handlers directly, without allocating a wrapper.
+	 * Handlers for {@link WrappedEvent} itself are therefore not called.
+	 * If the object is an {@link Event}, it is called with {@link #callEvent(Event)}.
+	 * If internal events are enabled and used, the object is wrapped anyway, so that the internal event can be called for it.
+	 *
+	 * @param object the object to be executed
+	 * @return Whether the object is {@link Cancellable} and was canceled
+	 * @see #registerWrappedHandler(Class, Consumer, byte, boolean, boolean)
+	 */
+	boolean callObject(@NotNull Object object);
+
+	/**
+	 * calls a batch of events
+	 * <p>
+	 * The events are grouped by their class and the handlers are only resolved once per group.
+	 * Each handler is then executed for all events of a group in the given order, before the next handler is executed.
+	 * Handler methods with a {@code List} of events as parameter receive all events of a group at once, for example
+	 * <pre>{@code
+	 *  @EventHandler
+	 *  public void onEvents(List<MyEvent> events) {
+	 *      //bulk work
+	 *  }
+	 * }</pre>
+	 * Whether an event was canceled can be checked on the event itself afterwards.
+	 *
+	 * @param events the events to be executed
+	 * @see #callEvent(Event)
+	 */
+	void callEvents(@NotNull Collection<? extends Event> events);
+
+	/**
+	 * enables or disables parallel execution for all handlers of an event class and its subclasses and implementations
+	 * <p>
+	 * Handlers of the same priority are then executed in parallel on the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool},
+	 * like handlers with {@link EventHandler#parallel()}. The event call waits for all handlers of a priority, before the handlers of the next priority are executed.
+	 * {@link Cancellable} events are always executed sequentially. The setting of a subclass takes precedence over the one of its superclass,
+	 * the setting of a {@link #createChild() child} over the one of its parent.
+	 *
+	 * @param event the event class or interface
+	 * @param parallel whether the handlers are executed in parallel
+	 */
+	void setParallel(@NotNull Class<?> event, boolean parallel);
+
+	/**
+	 * @param event the event class
+	 * @return whether the handlers of the event class are executed in parallel
+	 * @see #setParallel(Class, boolean)
+	 */
+	boolean isParallel(@NotNull Class<?> event);
+
+	/**
+	 * calls the passed event on the {@link #getAsyncExecutor() async executor} of this EventManager
+	 * <p>
+	 * All handlers of the event are still executed one after another in order of their priority, only the calling thread does not wait for them.
+	 * If handlers are (un)registered while the event is called, the EventManager should be {@link #isConcurrent() concurrent}.
+	 *
+	 * @param event the event to be executed
+	 * @return a future that is completed with whether the event was canceled, once all handlers are executed
+	 * @see #callEvent(Event)
+	 */
+	@NotNull
+	default CompletableFuture<Boolean> callEventAsync(@NotNull Event event) {
+		return callEventAsync(event, getAsyncExecutor());
+	}
+
+	/**
+	 * calls the passed event on the given executor
+	 * <p>
+	 * All handlers of the event are still executed one after another in order of their priority, only the calling thread does not wait for them.
+	 * If handlers are (un)registered while the event is called, the EventManager should be {@link #isConcurrent() concurrent}.
+	 *
+	 * @param event the event to be executed
+	 * @param executor the executor on which the event is called
+	 * @return a future that is completed with whether the event was canceled, once all handlers are executed
+	 * @see #callEvent(Event)
+	 */
+	@NotNull
+	default CompletableFuture<Boolean> callEventAsync(@NotNull Event event, @NotNull Executor executor) {
+		return CompletableFuture.supplyAsync(() -> callEvent(event), executor);
+	}
+
+	/**
+	 * The async executor runs a virtual thread per task by default, or a cached pool of daemon threads if virtual threads are not available
+	 * @return the executor used for asynchronous event calls
+	 */
+	@NotNull
+	Executor getAsyncExecutor();
+
+	/**
+	 * sets the executor used for asynchronous event calls
+	 * @param executor the executor or null to use the default executor
+	 */
+	void setAsyncExecutor(@Nullable Executor executor);
+
+	/**
+	 * enables or disables the recording of metrics
+	 * <p>
+	 * While enabled, the dispatches per event class and the invocations, latency histogram, errors and cancellations per handler are counted.
+	 * Counting is lock free, but every handler invocation is timed, so metrics are disabled by default.
+	 * Disabling metrics discards all recorded metrics.
+	 * @param enabled whether metrics should be recorded
+	 */
+	void setMetricsEnabled(boolean enabled);
+
+	/**
+	 * @return true if metrics are recorded
+	 */
+	boolean isMetricsEnabled();
+
+	/**
+	 * @return a snapshot of the metrics recorded since they were enabled, empty if metrics are disabled
+	 */
+	@NotNull
+	EventMetrics getMetrics();
+
 	/**
 	 * registers the given instance as a Parameter instance to the key
 	 * <p>
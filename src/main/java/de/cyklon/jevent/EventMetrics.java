@@ -0,0 +1,110 @@
+package de.cyklon.jevent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A snapshot of the metrics recorded by an {@link EventManager}
+ * <p>
+ * Latencies are measured in nanoseconds. Handler latencies are additionally recorded in a histogram with logarithmic buckets:
+ * every power of two is split into four linear sub buckets, so the bucket of a value is exact to 25%.
+ *
+ * @see EventManager#setMetricsEnabled(boolean)
+ */
+public final class EventMetrics {
+	private static final int SUB_BUCKET_BITS = 2;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	/**
+	 * the number of histogram buckets
+	 */
+	public static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final List<EventStats> events;
+	private final List<HandlerStats> handlers;
+
+	EventMetrics(@NotNull List<EventStats> events, @NotNull List<HandlerStats> handlers) {
+		this.events = List.copyOf(events);
+		this.handlers = List.copyOf(handlers);
+	}
+
+	/**
+	 * @return the dispatch metrics per event class
+	 */
+	@NotNull
+	public List<EventStats> getEvents() {
+		return events;
+	}
+
+	/**
+	 * @return the metrics per handler
+	 */
+	@NotNull
+	public List<HandlerStats> getHandlers() {
+		return handlers;
+	}
+
+	static int getBucket(long nanos) {
+		if (nanos < SUB_BUCKETS) return (int) Math.max(0, nanos);
+		int msb = 63 - Long.numberOfLeadingZeros(nanos);
+		int sub = (int) (nanos >>> (msb - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (msb - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * @param bucket the index of the bucket
+	 * @return the smallest latency in nanoseconds that is counted in the bucket
+	 */
+	public static long getBucketLowerBound(int bucket) {
+		if (bucket < SUB_BUCKETS) return bucket;
+		int msb = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		return (1L << msb) + ((long) (bucket % SUB_BUCKETS) << (msb - SUB_BUCKET_BITS));
+	}
+
+	@Override
+	public String toString() {
+		return "EventMetrics{events: %s, handlers: %s}".formatted(events, handlers);
+	}
+
+	/**
+	 * The dispatch metrics of a single event class
+	 *
+	 * @param eventType the event class
+	 * @param dispatches how often events of the class were called
+	 * @param totalNanos the total time spent calling the events
+	 */
+	public record EventStats(@NotNull Class<?> eventType, long dispatches, long totalNanos) {
+	}
+
+	/**
+	 * The metrics of a single handler
+	 *
+	 * @param handler the description of the handler
+	 * @param eventType the event type the handler listens to
+	 * @param priority the priority of the handler
+	 * @param invocations how often the handler was invoked
+	 * @param totalNanos the total time spent in the handler
+	 * @param errors how often the handler threw an exception
+	 * @param cancellations how often the handler cancelled the event
+	 * @param histogram the invocation count per latency bucket
+	 */
+	public record HandlerStats(@NotNull String handler, @NotNull Class<?> eventType, byte priority, long invocations, long totalNanos, long errors, long cancellations, @NotNull long[] histogram) {
+
+		/**
+		 * @param percentile the percentile between 0 and 100
+		 * @return the lower bound of the histogram bucket that contains the percentile, in nanoseconds
+		 */
+		public long getPercentile(double percentile) {
+			long total = 0;
+			for (long count : histogram) total += count;
+			if (total == 0) return 0;
+			long rank = (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100);
+			long seen = 0;
+			for (int i = 0; i < histogram.length; i++) {
+				seen += histogram[i];
+				if (seen >= rank && histogram[i] != 0) return getBucketLowerBound(i);
+			}
+			return getBucketLowerBound(histogram.length - 1);
+		}
+	}
+}
@@ -1,6 +1,9 @@
 package de.cyklon.jevent;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
 
 /**
  * The Handler Object is the base class for any type of handler
@@ -10,33 +13,189 @@ abstract class Handler<T extends Event> implements Comparable<Handler<T>> {
     protected Class<?> wrappedType;
     private final byte priority;
     private final boolean ignoreCancelled;
+    private final boolean async;
+    private final boolean parallel;
+    /**
+     * the key of the events the handler is called for, or null if it is called for all events
+     */
+    @Nullable
+    private final Object key;
+    /**
+     * the depth of the registry the handler is added to, 0 for a manager without parent
+     */
+    private int depth;
+    /**
+     * the registration order of the handler, among all registries
+     */
+    private long sequence;
+
+    public Handler(Class<T> eventType, Class<?> wrappedType, byte priority, boolean ignoreCancelled, boolean async, boolean parallel) {
+        this(eventType, wrappedType, priority, ignoreCancelled, async, parallel, null);
+    }
 
-    public Handler(Class<T> eventType, Class<?> wrappedType, byte priority, boolean ignoreCancelled) {
+    public Handler(Class<T> eventType, Class<?> wrappedType, byte priority, boolean ignoreCancelled, boolean async, boolean parallel, @Nullable Object key) {
         this.eventType = eventType;
         this.wrappedType = wrappedType;
         this.priority = priority;
         this.ignoreCancelled = ignoreCancelled;
+        this.async = async;
+        this.parallel = parallel;
+        this.key = key;
+    }
+
+    /**
+     * @param event the event
+     * @return true if the handler is called for the event in its current (cancelled) state
+     */
+    protected boolean accepts(@NotNull Event event) {
+        return ignoreCancelled || !(event instanceof Cancellable c && c.isCancelled());
+    }
+
+    /**
+     * sets the position of the handler among handlers of the same priority, called by the registry before the handler is visible to dispatch
+     *
+     * @param depth the depth of the registry, handlers of parents are called before those of their children
+     * @param sequence the registration order
+     */
+    void setOrder(int depth, long sequence) {
+        this.depth = depth;
+        this.sequence = sequence;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * @return true if the handler is executed in parallel with other handlers of the same priority, see {@link EventHandler#parallel()}
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * @return the key of the events the handler is called for, or null if it is called for all events
+     */
+    @Nullable
+    public Object getKey() {
+        return key;
+    }
+
+    public byte getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return true if the handler is called for cancelled events
+     */
+    public boolean isIgnoreCancelled() {
+        return ignoreCancelled;
+    }
+
+    /**
+     * @return the wrapped type for wrapped handlers, otherwise the event type
+     */
+    @NotNull
+    public Class<?> getType() {
+        return wrappedType!=null ? wrappedType : eventType;
+    }
+
+    /**
+     * invokes the handler, without checking whether it is suitable for the event or the event is cancelled.
+     * Both is ensured by the {@link HandlerList} it is called from
+     *
+     * @param manager the calling EventManager
+     * @param event the event, or the plain object for wrapped handlers
+     */
+    public void invoke(@NotNull EventManager manager, @NotNull Object event) {
+        if(async) manager.getAsyncExecutor().execute(() -> invokeTraced(manager, event));
+        else invokeTraced(manager, event);
     }
 
-    public boolean isSuitableHandler(@NotNull Class<? extends Event> event) {
-        return eventType.isAssignableFrom(event) || (eventType.equals(WrappedEvent.class) && wrappedType!=null && wrappedType.isAssignableFrom(event));
+    /**
+     * invokes the handler like {@link #invoke(EventManager, Object)} and records the invocation
+     *
+     * @param manager the calling EventManager
+     * @param event the event, or the plain object for wrapped handlers
+     * @param metrics the counters of this handler
+     */
+    public void invoke(@NotNull EventManager manager, @NotNull Object event, @NotNull MetricsRecorder.HandlerCounter metrics) {
+        if(async) manager.getAsyncExecutor().execute(() -> metrics.measure(() -> invokeTraced(manager, event), event));
+        else metrics.measure(() -> invokeTraced(manager, event), event);
+    }
+
+    /**
+     * invokes the handler and records a {@link HandlerFlightEvent} if it is enabled
+     *
+     * @param event the event, or the plain object for wrapped handlers
+     */
+    private void invokeTraced(@NotNull EventManager manager, @NotNull Object event) {
+        HandlerFlightEvent flight = HandlerFlightEvent.start();
+        if(flight==null) {
+            invokeAny(manager, event);
+            return;
+        }
+        try {
+            invokeAny(manager, event);
+        } finally {
+            flight.commit(this, event.getClass());
+        }
     }
 
     @SuppressWarnings("unchecked")
-    public void invoke(@NotNull EventManager manager, @NotNull Event event) {
-        if(event instanceof Cancellable c && c.isCancelled() && !ignoreCancelled) return;
-        if(isSuitableHandler(event.getClass())) invokeEvent(manager, (T) event);
+    private void invokeAny(@NotNull EventManager manager, @NotNull Object event) {
+        if(event instanceof Event e) invokeEvent(manager, (T) e);
+        else invokeWrapped(manager, event);
+    }
+
+    /**
+     * invokes the handler for a batch of events of the same type, in order
+     *
+     * @param manager the calling EventManager
+     * @param events the events
+     * @param metrics the counters of this handler, or null if metrics are disabled
+     */
+    public void invokeBatch(@NotNull EventManager manager, @NotNull List<? extends Event> events, @Nullable MetricsRecorder.HandlerCounter metrics) {
+        for (Event event : events) {
+            if(!accepts(event)) continue;
+            if (metrics==null) invoke(manager, event);
+            else invoke(manager, event, metrics);
+        }
     }
 
+    /**
+     * @return the class of the listener or consumer that handles the events
+     */
+    @NotNull
+    public abstract Class<?> getListenerType();
+
+    /**
+     * @return the name of the method that handles the events
+     */
+    @NotNull
+    public abstract String getMethodName();
+
     protected abstract void invokeEvent(@NotNull EventManager manager, @NotNull T event);
 
+    /**
+     * @param wrapped the plain object, only called on wrapped handlers
+     */
+    protected abstract void invokeWrapped(@NotNull EventManager manager, @NotNull Object wrapped);
+
+    /**
+     * orders handlers by priority, then handlers of parent registries first, then in registration order.
+     * The order is total, so that a sorted list does not depend on the order the handlers were collected or inserted in
+     */
     @Override
     public int compareTo(@NotNull Handler o) {
-        return Byte.compare(o.priority, this.priority);
+        int result = Byte.compare(o.priority, this.priority);
+        if (result == 0) result = Integer.compare(this.depth, o.depth);
+        if (result == 0) result = Long.compare(this.sequence, o.sequence);
+        return result;
     }
 
     @Override
     public String toString() {
-        return "Handler{eventType: %s, priority: %s, ignoreCancelled: %s, handler: %s}".formatted(eventType.equals(WrappedEvent.class) ? String.format("{%s, %s}", WrappedEvent.class, wrappedType) : eventType, priority, ignoreCancelled, "%s");
+        return "Handler{eventType: %s, priority: %s, ignoreCancelled: %s, async: %s, parallel: %s, handler: %s}".formatted(eventType.equals(WrappedEvent.class) ? String.format("{%s, %s}", WrappedEvent.class, wrappedType) : eventType, priority, ignoreCancelled, async, parallel, "%s");
     }
 }
@@ -0,0 +1,50 @@
+package de.cyklon.jevent;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The JFR event recorded for every handler invocation of a {@link JEvent} EventManager
+ * <p>
+ * It is disabled by default, enable {@code de.cyklon.jevent.HandlerInvocation} in the JFR settings to record it.
+ */
+@Name("de.cyklon.jevent.HandlerInvocation")
+@Label("Handler Invocation")
+@Description("An event handler invoked for an event")
+@Category("JEvent")
+@Enabled(false)
+@StackTrace(false)
+final class HandlerFlightEvent extends jdk.jfr.Event {
+	@Label("Event Class")
+	Class<?> eventClass;
+	@Label("Listener Class")
+	Class<?> listenerClass;
+	@Label("Method")
+	String method;
+	@Label("Priority")
+	byte priority;
+	@Label("Async")
+	boolean async;
+
+	/**
+	 * @return the begun event, or null if it is disabled
+	 */
+	@Nullable
+	static HandlerFlightEvent start() {
+		HandlerFlightEvent flight = new HandlerFlightEvent();
+		if (!flight.isEnabled()) return null;
+		flight.begin();
+		return flight;
+	}
+
+	void commit(Handler<?> handler, Class<?> eventClass) {
+		end();
+		if (!shouldCommit()) return;
+		this.eventClass = eventClass;
+		this.listenerClass = handler.getListenerType();
+		this.method = handler.getMethodName();
+		this.priority = handler.getPriority();
+		this.async = handler.isAsync();
+		commit();
+	}
+}
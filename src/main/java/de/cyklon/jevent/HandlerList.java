@@ -0,0 +1,103 @@
+package de.cyklon.jevent;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The HandlerList is an immutable list of the handlers of an event class, sorted by priority
+ * <p>
+ * For every position it knows the next handler that is called for cancelled events,
+ * so that the handlers in between can be skipped at once after an event is cancelled.
+ * It also knows whether any handler is {@link Handler#isParallel() parallel}, so that sequential dispatch does not need to look for them.
+ */
+final class HandlerList {
+	static final HandlerList EMPTY = new HandlerList(new Handler<?>[0]);
+
+	private final Handler<?>[] handlers;
+	/**
+	 * the index of the first handler at or after each index that {@link Handler#isIgnoreCancelled() ignores cancellation},
+	 * or the number of handlers if there is none
+	 */
+	private final int[] nextIgnoringCancelled;
+	private final boolean parallel;
+
+	private HandlerList(@NotNull Handler<?>[] handlers) {
+		this.handlers = handlers;
+		this.nextIgnoringCancelled = new int[handlers.length];
+		int next = handlers.length;
+		boolean parallel = false;
+		for (int i = handlers.length - 1; i >= 0; i--) {
+			if (handlers[i].isIgnoreCancelled()) next = i;
+			nextIgnoringCancelled[i] = next;
+			parallel |= handlers[i].isParallel();
+		}
+		this.parallel = parallel;
+	}
+
+	/**
+	 * @param handlers the handlers sorted by priority, the array must not be modified afterwards
+	 */
+	@NotNull
+	static HandlerList of(@NotNull Handler<?>[] handlers) {
+		return handlers.length == 0 ? EMPTY : new HandlerList(handlers);
+	}
+
+	/**
+	 * @return the handlers, the array must not be modified
+	 */
+	@NotNull
+	Handler<?>[] getHandlers() {
+		return handlers;
+	}
+
+	int size() {
+		return handlers.length;
+	}
+
+	boolean isEmpty() {
+		return handlers.length == 0;
+	}
+
+	/**
+	 * @return true if any handler is {@link Handler#isParallel() parallel}
+	 */
+	boolean hasParallel() {
+		return parallel;
+	}
+
+	/**
+	 * @param index the current index
+	 * @return the index of the first handler at or after the index that is called for cancelled events, or {@link #size()} if there is none
+	 */
+	int nextIgnoringCancelled(int index) {
+		return nextIgnoringCancelled[index];
+	}
+
+	/**
+	 * @return the list with the handler inserted at its position in the {@link Handler#compareTo(Handler) order}
+	 */
+	@NotNull
+	HandlerList with(@NotNull Handler<?> handler) {
+		int index = handlers.length;
+		while (index > 0 && handlers[index - 1].compareTo(handler) > 0) index--;
+		Handler<?>[] result = new Handler<?>[handlers.length + 1];
+		System.arraycopy(handlers, 0, result, 0, index);
+		result[index] = handler;
+		System.arraycopy(handlers, index, result, index + 1, handlers.length - index);
+		return new HandlerList(result);
+	}
+
+	/**
+	 * @return the list without the handler
+	 */
+	@NotNull
+	HandlerList without(@NotNull Handler<?> handler) {
+		for (int i = 0; i < handlers.length; i++) {
+			if (!handlers[i].equals(handler)) continue;
+			Handler<?>[] result = new Handler<?>[handlers.length - 1];
+			System.arraycopy(handlers, 0, result, 0, i);
+			System.arraycopy(handlers, i + 1, result, i, result.length - i);
+			return of(result);
+		}
+		return this;
+	}
+}
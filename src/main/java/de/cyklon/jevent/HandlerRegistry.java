@@ -0,0 +1,497 @@
+package de.cyklon.jevent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The HandlerRegistry holds all handlers of an {@link EventManager} together with the pre-sorted handlers per event class
+ * <p>
+ * The sorted handler lists are immutable arrays that are replaced on change, so dispatching never locks and never sees a half applied change.
+ * Every cached list remembers the types it was resolved from, so adding or removing a handler only updates the lists that contain its type,
+ * instead of rebuilding all of them. Changes and the resolution of uncached lists are serialized on the lock of the registry.
+ * Lists that become empty by a removal, and lists that were resolved empty, are dropped together with their types on the next removal,
+ * so the registry does not keep event classes (and their class loaders) reachable, after all of their handlers are unregistered.
+ * <p>
+ * Keyed handlers are held in the same buckets, but are only contained in the lists per key and event class, together with the handlers without a key.
+ * These lists are only cached while a handler of the key is registered in the registry or a parent, so keys are not kept reachable either.
+ * <p>
+ * A registry can have a parent, then its lists contain the handlers of the parent (and its parents) as well.
+ * Changes of the parent are applied to the cached lists of all children incrementally. A child shares the lock of its parent.
+ * All lists are sorted by {@link Handler#compareTo(Handler)}, which is a total order, so a list that is updated incrementally
+ * is always equal to the list resolved from scratch.
+ */
+final class HandlerRegistry {
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+	private final boolean concurrent;
+	@Nullable
+	private HandlerRegistry parent;
+	private final List<HandlerRegistry> children = new ArrayList<>();
+	private final Object lock;
+	private final int depth;
+	private final Set<Handler<?>> handlers;
+	/**
+	 * notified with the handlers that are removed from this registry, under the lock of the registry
+	 */
+	private final Consumer<Collection<Handler<?>>> removalListener;
+	/**
+	 * the handlers per type they are registered for, see {@link Handler#getType()}
+	 */
+	private final Map<Class<?>, Set<Handler<?>>> buckets = new HashMap<>();
+	/**
+	 * the number of registered handlers per key, read without locking by every dispatching thread
+	 */
+	private final Map<Object, Integer> keys = new ConcurrentHashMap<>();
+
+	/**
+	 * the handlers per event class
+	 */
+	private final View<Class<?>> events = new View<>() {
+		@Override
+		Class<?>[] getTypes(Class<?> event) {
+			return TypeHierarchy.getSupertypes(event);
+		}
+
+		@Override
+		boolean accepts(Class<?> event, Handler<?> handler) {
+			return handler.getKey() == null;
+		}
+	};
+	/**
+	 * the wrapped handlers per wrapped object class
+	 */
+	private final View<Class<?>> wrapped = new View<>() {
+		@Override
+		Class<?>[] getTypes(Class<?> type) {
+			return TypeHierarchy.getSupertypes(type);
+		}
+
+		@Override
+		boolean accepts(Class<?> type, Handler<?> handler) {
+			return handler.wrappedType != null && handler.getKey() == null;
+		}
+	};
+	/**
+	 * the handlers of a {@link WrappedEvent} per wrapped object class:
+	 * the event handlers of WrappedEvent and its supertypes, and the wrapped handlers of the object
+	 */
+	private final View<Class<?>> wrappedEvents = new View<>() {
+		@Override
+		Class<?>[] getTypes(Class<?> type) {
+			return getWrappedEventTypes(type);
+		}
+
+		@Override
+		boolean accepts(Class<?> type, Handler<?> handler) {
+			return handler.getKey() == null && acceptsWrappedEvent(type, handler);
+		}
+	};
+	private final KeyedView keyed = new KeyedView();
+	private final List<View<?>> views = List.of(events, wrapped, wrappedEvents, keyed);
+
+	/**
+	 * @param parent the registry whose handlers are contained in all lists of this registry, or null
+	 * @param removalListener notified with the handlers that are removed from this registry
+	 */
+	HandlerRegistry(boolean concurrent, @Nullable HandlerRegistry parent, @NotNull Consumer<Collection<Handler<?>>> removalListener) {
+		this.concurrent = concurrent;
+		this.parent = parent;
+		this.removalListener = removalListener;
+		this.lock = parent == null ? this : parent.lock;
+		this.depth = parent == null ? 0 : parent.depth + 1;
+		this.handlers = concurrent ? ConcurrentHashMap.newKeySet() : new HashSet<>();
+		if (parent != null) {
+			synchronized (lock) {
+				parent.children.add(this);
+			}
+		}
+	}
+
+	/**
+	 * @param event the concrete event class
+	 * @return the handlers without a key suitable for the event class, sorted by priority
+	 */
+	@NotNull
+	HandlerList get(@NotNull Class<? extends Event> event) {
+		return events.get(event);
+	}
+
+	/**
+	 * @param event the concrete event class
+	 * @param key the key of the event
+	 * @return the handlers without a key and the handlers of the key suitable for the event class, sorted by priority
+	 */
+	@NotNull
+	HandlerList get(@NotNull Class<? extends Event> event, @NotNull Object key) {
+		return hasKey(key) ? keyed.get(new KeyedType(key, event, false)) : events.get(event);
+	}
+
+	/**
+	 * @param type the class of the wrapped object
+	 * @return the wrapped handlers suitable for the object class, sorted by priority
+	 */
+	@NotNull
+	HandlerList getWrapped(@NotNull Class<?> type) {
+		return wrapped.get(type);
+	}
+
+	/**
+	 * @param type the class of the wrapped object
+	 * @return the handlers without a key suitable for a {@link WrappedEvent} of the object class, sorted by priority
+	 */
+	@NotNull
+	HandlerList getWrappedEvent(@NotNull Class<?> type) {
+		return wrappedEvents.get(type);
+	}
+
+	/**
+	 * @param type the class of the wrapped object
+	 * @param key the key of the event
+	 * @return the handlers without a key and the handlers of the key suitable for a {@link WrappedEvent} of the object class, sorted by priority
+	 */
+	@NotNull
+	HandlerList getWrappedEvent(@NotNull Class<?> type, @NotNull Object key) {
+		return hasKey(key) ? keyed.get(new KeyedType(key, type, true)) : wrappedEvents.get(type);
+	}
+
+	/**
+	 * @return an unmodifiable view of all currently registered handlers
+	 */
+	@NotNull
+	Collection<Handler<?>> getAll() {
+		return Collections.unmodifiableSet(handlers);
+	}
+
+	boolean contains(@NotNull Handler<?> handler) {
+		return handlers.contains(handler);
+	}
+
+	/**
+	 * @return whether a handler of the key is registered in this registry or a parent
+	 */
+	private boolean hasKey(@NotNull Object key) {
+		for (HandlerRegistry registry = this; registry != null; registry = registry.parent) {
+			if (registry.keys.containsKey(key)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * adds the handlers and updates only the cached lists that contain their types.
+	 * Each list is replaced once, so an event is called with all or none of the handlers
+	 *
+	 * @return the handlers that were not registered yet and are added now
+	 */
+	@NotNull
+	List<Handler<?>> add(@NotNull Collection<? extends Handler<?>> handlers) {
+		synchronized (lock) {
+			List<Handler<?>> added = new ArrayList<>(handlers.size());
+			for (Handler<?> handler : handlers) {
+				if (!this.handlers.add(handler)) continue;
+				handler.setOrder(depth, SEQUENCE.incrementAndGet());
+				buckets.computeIfAbsent(handler.getType(), t -> new LinkedHashSet<>()).add(handler);
+				if (handler.getKey() != null) keys.merge(handler.getKey(), 1, Integer::sum);
+				added.add(handler);
+			}
+			update(added, true);
+			return added;
+		}
+	}
+
+	boolean add(@NotNull Handler<?> handler) {
+		return !add(List.of(handler)).isEmpty();
+	}
+
+	/**
+	 * removes the handlers and updates only the cached lists that contain them
+	 *
+	 * @return true if any handler was removed
+	 */
+	boolean remove(@NotNull Collection<? extends Handler<?>> handlers) {
+		synchronized (lock) {
+			List<Handler<?>> removed = new ArrayList<>(handlers.size());
+			//the keys whose last handler in this registry is removed
+			Set<Object> vanished = new HashSet<>();
+			for (Handler<?> handler : handlers) {
+				if (!this.handlers.remove(handler)) continue;
+				Set<Handler<?>> bucket = buckets.get(handler.getType());
+				bucket.remove(handler);
+				if (bucket.isEmpty()) buckets.remove(handler.getType());
+				if (handler.getKey() != null && keys.computeIfPresent(handler.getKey(), (k, count) -> count == 1 ? null : count - 1) == null) vanished.add(handler.getKey());
+				removed.add(handler);
+			}
+			if (removed.isEmpty()) return false;
+			update(removed, false);
+			if (!vanished.isEmpty()) dropUnkeyed(vanished);
+			removalListener.accept(removed);
+			return true;
+		}
+	}
+
+	boolean removeIf(@NotNull Predicate<Handler<?>> filter) {
+		synchronized (lock) {
+			List<Handler<?>> matches = new ArrayList<>();
+			for (Handler<?> handler : handlers) {
+				if (filter.test(handler)) matches.add(handler);
+			}
+			return remove(matches);
+		}
+	}
+
+	void clear() {
+		synchronized (lock) {
+			if (!handlers.isEmpty()) removalListener.accept(List.copyOf(handlers));
+			handlers.clear();
+			buckets.clear();
+			keys.clear();
+			invalidate();
+		}
+	}
+
+	/**
+	 * removes all handlers and detaches the registry from its parent, so that it does not contain the handlers of the parent anymore
+	 */
+	void destroy() {
+		synchronized (lock) {
+			if (parent != null) parent.children.remove(this);
+			parent = null;
+			if (!handlers.isEmpty()) removalListener.accept(List.copyOf(handlers));
+			handlers.clear();
+			buckets.clear();
+			keys.clear();
+			invalidate();
+		}
+	}
+
+	/**
+	 * applies the added or removed handlers of this registry or a parent to the cached lists of this registry and its children
+	 */
+	private void update(List<Handler<?>> handlers, boolean add) {
+		if (handlers.isEmpty()) return;
+		for (View<?> view : views) view.update(handlers, add);
+		for (HandlerRegistry child : children) child.update(handlers, add);
+	}
+
+	/**
+	 * drops the keyed lists of this registry and its children for the keys, that have no registered handler anymore
+	 */
+	private void dropUnkeyed(Set<Object> keys) {
+		for (Object key : keys) {
+			if (!hasKey(key)) keyed.drop(key);
+		}
+		for (HandlerRegistry child : children) child.dropUnkeyed(keys);
+	}
+
+	/**
+	 * clears the cached lists of this registry and its children, they are resolved again on the next access
+	 */
+	private void invalidate() {
+		for (View<?> view : views) view.clear();
+		for (HandlerRegistry child : children) child.invalidate();
+	}
+
+	private static Class<?>[] getWrappedEventTypes(Class<?> type) {
+		Set<Class<?>> types = new LinkedHashSet<>(Arrays.asList(TypeHierarchy.getSupertypes(type)));
+		types.addAll(Arrays.asList(TypeHierarchy.getSupertypes(WrappedEvent.class)));
+		return types.toArray(Class<?>[]::new);
+	}
+
+	private static boolean acceptsWrappedEvent(Class<?> type, Handler<?> handler) {
+		Class<?>[] supertypes = TypeHierarchy.getSupertypes(handler.wrappedType != null ? type : WrappedEvent.class);
+		for (Class<?> supertype : supertypes) {
+			if (supertype == handler.getType()) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * A cache of sorted handler lists, each resolved as the union of the buckets of some types
+	 *
+	 * @param <K> the key of a list
+	 */
+	private abstract class View<K> {
+		/**
+		 * read without locking by every dispatching thread, so it is concurrent even if the registry is not
+		 */
+		private final Map<K, HandlerList> lists = new ConcurrentHashMap<>();
+		/**
+		 * the cached keys per type, whose lists contain the bucket of the type
+		 */
+		private final Map<Class<?>, Set<K>> dependents = new HashMap<>();
+		/**
+		 * the keys whose lists were resolved empty, they are dropped on the next removal
+		 */
+		private final Set<K> empty = new HashSet<>();
+
+		/**
+		 * @return the types whose buckets are contained in the list of the key
+		 */
+		abstract Class<?>[] getTypes(K key);
+
+		/**
+		 * @return whether the handler of a contained bucket belongs into the list of the key
+		 */
+		abstract boolean accepts(K key, Handler<?> handler);
+
+		/**
+		 * @return whether the resolved list of the key may be cached
+		 */
+		boolean isCacheable(K key) {
+			return true;
+		}
+
+		/**
+		 * called when the list of the key is cached
+		 */
+		void cached(K key) {
+		}
+
+		/**
+		 * called when the cached list of the key is dropped
+		 */
+		void dropped(K key) {
+		}
+
+		HandlerList get(K key) {
+			HandlerList result = lists.get(key);
+			return result == null ? resolve(key) : result;
+		}
+
+		private HandlerList resolve(K key) {
+			synchronized (lock) {
+				HandlerList result = lists.get(key);
+				if (result != null) return result;
+				boolean cacheable = isCacheable(key);
+				List<Handler<?>> list = new ArrayList<>();
+				for (Class<?> type : getTypes(key)) {
+					if (cacheable) dependents.computeIfAbsent(type, t -> new HashSet<>()).add(key);
+					for (HandlerRegistry registry = HandlerRegistry.this; registry != null; registry = registry.parent) collect(registry.buckets.get(type), key, list);
+				}
+				Handler<?>[] handlers = list.toArray(Handler<?>[]::new);
+				Arrays.sort(handlers);
+				result = HandlerList.of(handlers);
+				if (cacheable) {
+					lists.put(key, result);
+					cached(key);
+					if (result.isEmpty()) empty.add(key);
+				}
+				return result;
+			}
+		}
+
+		private void collect(@Nullable Set<Handler<?>> bucket, K key, List<Handler<?>> list) {
+			if (bucket == null) return;
+			for (Handler<?> handler : bucket) {
+				if (accepts(key, handler)) list.add(handler);
+			}
+		}
+
+		/**
+		 * @param handlers the added or removed handlers
+		 * @param add true if the handlers were added
+		 */
+		private void update(List<Handler<?>> handlers, boolean add) {
+			if (handlers.isEmpty()) return;
+			Map<K, HandlerList> updated = new HashMap<>();
+			for (Handler<?> handler : handlers) {
+				for (K key : dependents.getOrDefault(handler.getType(), Set.of())) {
+					if (!accepts(key, handler)) continue;
+					HandlerList list = updated.getOrDefault(key, lists.get(key));
+					updated.put(key, add ? list.with(handler) : list.without(handler));
+				}
+			}
+			lists.putAll(updated);
+			if (add) {
+				if (!empty.isEmpty()) empty.removeAll(updated.keySet());
+				return;
+			}
+			//only the rewritten lists can have become empty, they are resolved again on the next access
+			List<K> dropped = new ArrayList<>(empty);
+			empty.clear();
+			updated.forEach((key, list) -> {
+				if (list.isEmpty()) dropped.add(key);
+			});
+			drop(dropped);
+		}
+
+		/**
+		 * drops the cached lists of the keys together with their dependents
+		 */
+		void drop(Collection<K> keys) {
+			for (K key : keys) {
+				if (lists.remove(key) == null) continue;
+				dropped(key);
+				for (Class<?> type : getTypes(key)) {
+					Set<K> dependents = this.dependents.get(type);
+					if (dependents != null && dependents.remove(key) && dependents.isEmpty()) this.dependents.remove(type);
+				}
+			}
+		}
+
+		void clear() {
+			lists.clear();
+			dependents.clear();
+			empty.clear();
+		}
+	}
+
+	/**
+	 * the handlers without a key and the handlers of the key, per key and event class or wrapped object class
+	 */
+	private final class KeyedView extends View<KeyedType> {
+		/**
+		 * the cached keys per key of the handlers
+		 */
+		private final Map<Object, Set<KeyedType>> types = new HashMap<>();
+
+		@Override
+		Class<?>[] getTypes(KeyedType key) {
+			return key.wrapped() ? getWrappedEventTypes(key.type()) : TypeHierarchy.getSupertypes(key.type());
+		}
+
+		@Override
+		boolean accepts(KeyedType key, Handler<?> handler) {
+			return (handler.getKey() == null || handler.getKey().equals(key.key())) && (!key.wrapped() || acceptsWrappedEvent(key.type(), handler));
+		}
+
+		@Override
+		boolean isCacheable(KeyedType key) {
+			return hasKey(key.key());
+		}
+
+		@Override
+		void cached(KeyedType key) {
+			types.computeIfAbsent(key.key(), k -> new HashSet<>()).add(key);
+		}
+
+		@Override
+		void dropped(KeyedType key) {
+			Set<KeyedType> cached = types.get(key.key());
+			if (cached != null && cached.remove(key) && cached.isEmpty()) types.remove(key.key());
+		}
+
+		/**
+		 * drops all cached lists of the key of the handlers
+		 */
+		void drop(Object key) {
+			Set<KeyedType> cached = types.remove(key);
+			if (cached != null) drop(cached);
+		}
+
+		@Override
+		void clear() {
+			super.clear();
+			types.clear();
+		}
+	}
+
+	/**
+	 * @param type the event class, or the wrapped object class if wrapped
+	 */
+	private record KeyedType(@NotNull Object key, @NotNull Class<?> type, boolean wrapped) {}
+}
@@ -12,14 +12,24 @@ import de.cyklon.reflection.function.Sorter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * JEvent provides a powerful and lightweight event system based on the syntax of the <a href="https://www.spigotmc.org/wiki/using-the-event-api/">Spigot event</a> system
  */
 public final class JEvent implements EventManager {
-	static final EventManager DEFAULT_MANAGER = new JEvent(false);
+	static final EventManager DEFAULT_MANAGER = new JEvent(false, false);
 
 	/**
 	 * Internal events are deactivated for this EventManager.
@@ -49,28 +59,70 @@ public final class JEvent implements EventManager {
 	 */
 	@NotNull
 	public static EventManager createManager(boolean useInternalEvents) {
-		return new JEvent(useInternalEvents);
+		return new JEvent(useInternalEvents, false);
 	}
 
-	private final Collection<Handler<?>> handlerSet = new HashSet<>();
-	private final Map<String, Object> parameterInstances = new HashMap<>();
+	/**
+	 * create a new thread safe EventManager
+	 * <p>
+	 * internal events are deactivated. To enable internal events, use {@link #createConcurrentManager(boolean)}
+	 * @return the new Created EventManager
+	 * @see #createConcurrentManager(boolean)
+	 */
+	@NotNull
+	public static EventManager createConcurrentManager() {
+		return createConcurrentManager(false);
+	}
+
+	/**
+	 * create a new thread safe EventManager
+	 * <p>
+	 * Listeners, handlers and parameter instances can be (un)registered from any thread while events are called on other threads.
+	 * Registrations publish immutable handler snapshots, so calling events never locks.
+	 * @param useInternalEvents determines whether internal events are activated for this EventManager
+	 * @return the new Created EventManager
+	 */
+	@NotNull
+	public static EventManager createConcurrentManager(boolean useInternalEvents) {
+		return new JEvent(useInternalEvents, true);
+	}
+
+	@Nullable
+	private volatile JEvent parent;
+	private final List<JEvent> children = new CopyOnWriteArrayList<>();
+	private final HandlerRegistry registry;
+	/**
+	 * the references of weakly registered listeners that were garbage collected
+	 */
+	private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+	private final Map<String, Object> parameterInstances;
+	/**
+	 * the parallel setting per event class, see {@link #setParallel(Class, boolean)}
+	 */
+	private final Map<Class<?>, Boolean> parallelEvents = new ConcurrentHashMap<>();
 
 	private final UUID id;
 	private final boolean useInternalEvents;
-	private Consumer<String> logger = null;
+	private final boolean concurrent;
+	private volatile Consumer<String> logger = null;
+	private volatile Executor asyncExecutor = null;
+	private volatile MetricsRecorder metrics = null;
+
+	private JEvent(boolean useInternalEvents, boolean concurrent) {
+		this(useInternalEvents, concurrent, null);
+	}
 
-	private JEvent(boolean useInternalEvents) {
+	private JEvent(boolean useInternalEvents, boolean concurrent, @Nullable JEvent parent) {
 		this.id = UUID.randomUUID();
 		this.useInternalEvents = useInternalEvents;
+		this.concurrent = concurrent;
+		this.parent = parent;
+		this.registry = new HandlerRegistry(concurrent, parent == null ? null : parent.registry, this::removed);
+		this.parameterInstances = concurrent ? Collections.synchronizedMap(new HashMap<>()) : new HashMap<>();
 	}
 
-	@SuppressWarnings("unchecked")
-	private <T extends Event> Collection<Handler<T>> getHandlers(@NotNull Class<T> event) {
-		return handlerSet.stream()
-				.filter(h -> h.isSuitableHandler(event))
-				.map(h -> (Handler<T>) h)
-				.sorted()
-				.toList();
+	private HandlerList getHandlers(@NotNull Class<? extends Event> event) {
+		return registry.get(event);
 	}
 
 	@Override
@@ -83,27 +135,105 @@ public final class JEvent implements EventManager {
 		return useInternalEvents;
 	}
 
-	public void registerListener(@NotNull Object obj) {
+	@Override
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	@Override
+	public @NotNull EventManager createChild() {
+		JEvent child = new JEvent(useInternalEvents, concurrent, this);
+		children.add(child);
+		debug("created child manager " + child.getId());
+		return child;
+	}
+
+	@Override
+	public @Nullable EventManager getParent() {
+		return parent;
+	}
+
+	@Override
+	public void destroy() {
+		JEvent parent = this.parent;
+		if (parent != null) parent.children.remove(this);
+		this.parent = null;
+		for (JEvent child : children) child.destroy();
+		registry.destroy();
+		debug("destroyed manager");
+	}
+
+	public @NotNull Subscription registerListener(@NotNull Object obj) {
 		debug("register listener " + obj.getClass());
-		Collection<MethodHandler<?>> handlers = MethodHandler.getHandlers(obj);
-		this.handlerSet.addAll(handlers);
+		purgeCollected();
+		Collection<MethodHandler<?>> handlers;
+		List<Handler<?>> added;
+		synchronized (registry) {
+			handlers = MethodHandler.getHandlers(this, obj);
+			added = registry.add(handlers);
+		}
+		debugRegistered(obj, handlers);
+		return new HandlerSubscription(registry, added);
+	}
+
+	@Override
+	public @NotNull Subscription registerWeakListener(@NotNull Object obj) {
+		debug("register weak listener " + obj.getClass());
+		purgeCollected();
+		MethodHandler.ListenerReference reference = new MethodHandler.ListenerReference(obj, collected);
+		Collection<MethodHandler<?>> handlers;
+		List<Handler<?>> added;
+		synchronized (registry) {
+			handlers = MethodHandler.getHandlers(this, obj, reference);
+			added = registry.add(handlers);
+			reference.handlers = added;
+		}
+		debugRegistered(obj, handlers);
+		return new HandlerSubscription(registry, added);
+	}
+
+	/**
+	 * removes the handlers of all weakly registered listeners that were garbage collected since the last call
+	 */
+	private void purgeCollected() {
+		Reference<?> reference;
+		while ((reference = collected.poll()) != null) {
+			Collection<? extends Handler<?>> handlers = ((MethodHandler.ListenerReference) reference).handlers;
+			if (registry.remove(handlers) && isDebugEnabled()) debug("unregistered %s handlers of a garbage collected listener: %s".formatted(handlers.size(), handlers));
+		}
+	}
+
+	private void debugRegistered(@NotNull Object listener, @NotNull Collection<MethodHandler<?>> handlers) {
 		if (isDebugEnabled()) {
-			debug(String.format("%s handlers registered for listener %s:", handlers.size(), obj.getClass()));
+			debug(String.format("%s handlers registered for listener %s:", handlers.size(), listener.getClass()));
 			handlers.forEach(this::debug);
 		}
 	}
 
 	@Override
-	public void registerListener(@NotNull Class<?> clazz) {
-		registerListener0(ReflectClass.wrap(clazz));
+	public @NotNull Subscription registerListener(@NotNull Class<?> clazz) {
+		return registerListener0(ReflectClass.wrap(clazz));
 	}
 
 	@Override
-	public void registerListener(@NotNull ReflectClass<?> clazz) {
-		registerListener0(clazz);
+	public @NotNull Subscription registerListener(@NotNull ReflectClass<?> clazz) {
+		return registerListener0(clazz);
 	}
 
-	private <D> void registerListener0(@NotNull ReflectClass<D> clazz) {
+	private <D> Subscription registerListener0(@NotNull ReflectClass<D> clazz) {
+		D instance = createListener(clazz);
+		if (instance!=null) return registerListener(instance);
+		debug("cannot register listener " + clazz);
+		return new HandlerSubscription(registry, List.of());
+	}
+
+	/**
+	 * creates the listener instance with the no args constructor, or a constructor that only takes parameter instances
+	 *
+	 * @return the instance or null if there is no constructor
+	 */
+	@Nullable
+	private <D> D createListener(@NotNull ReflectClass<D> clazz) {
 		debug("search for suitable constructor in " + clazz);
 		Optional<? extends ReflectConstructor<D>> constructor = clazz.getConstructors(Filter.hasNoArgs()).stream().min(Sorter.byModifier());
 		D instance = null;
@@ -138,91 +268,385 @@ public final class JEvent implements EventManager {
 				instance = con.newInstance(params);
 			}
 		}
+		return instance;
+	}
 
-		if (instance!=null) registerListener(instance);
-		else debug("cannot register listener " + clazz);
+	@Override
+	public void registerListenerPackage(@NotNull String packageName, boolean parallel) {
+		ListenerIndex index = ListenerIndex.load();
+		if (index==null || !index.covers(packageName)) registerListenerPackage(OfflinePackage.get(packageName), parallel);
+		else {
+			debug("register listener package %s from index".formatted(packageName));
+			Stream<String> listeners = index.getListeners(packageName).stream();
+			registerAll(parallel ? listeners.parallel() : listeners, name -> createIndexedHandlers(index, name));
+		}
+	}
+
+	private Collection<MethodHandler<?>> createIndexedHandlers(@NotNull ListenerIndex index, @NotNull String name) {
+		ReflectClass<?> clazz = ReflectClass.wrap(index.loadClass(name));
+		Object instance = createListener(clazz);
+		if (instance==null) {
+			debug("cannot register listener " + clazz);
+			return List.of();
+		}
+		List<MethodHandler<?>> handlers = new ArrayList<>();
+		for (ListenerIndex.IndexedHandler handler : index.getHandlers(name)) {
+			handlers.add(MethodHandler.create(this, instance, handler.resolve(index), handler.priority(), handler.ignoreCancelled(), handler.async(), handler.parallel()));
+		}
+		debugRegistered(instance, handlers);
+		return handlers;
 	}
 
 	@Override
-	public void registerListenerPackage(@NotNull OfflinePackage pkg) {
+	public void registerListenerPackage(@NotNull OfflinePackage pkg, boolean parallel) {
 		debug("register listener package " + pkg);
-		pkg.loadRecursive().forEach(this::processPackage);
+		//the package tree is loaded by a single call on this thread, only the loaded packages are processed in parallel
+		Stream<ReflectPackage> packages = pkg.loadRecursive().stream();
+		registerAll((parallel ? packages.parallel() : packages).flatMap(this::processPackage).distinct(), this::createHandlers);
 	}
 
-	private void processPackage(ReflectPackage pkg) {
+	private Stream<ReflectClass<?>> processPackage(ReflectPackage pkg) {
 		Listener listener;
-		if ((listener = pkg.getAnnotation(Listener.class)) != null) pkg.getLoadedClasses().forEach(c -> processClass(c, listener.includeSubclasses()));
+		if ((listener = pkg.getAnnotation(Listener.class)) != null) return pkg.getLoadedClasses().stream().flatMap(c -> processClass(c, listener.includeSubclasses()));
 		else {
-			pkg.getLoadedClasses().stream()
+			return pkg.getLoadedClasses().stream()
 					.filter(c -> c.hasAnnotation(Listener.class))
-					.forEach(c -> processClass(c, false));
+					.flatMap(c -> processClass(c, false));
 		}
 	}
 
-	private void processClass(ReflectClass<?> clazz, boolean includeSubclasses) {
-		registerListener0(clazz);
+	private Stream<ReflectClass<?>> processClass(ReflectClass<?> clazz, boolean includeSubclasses) {
 		Listener listener;
-		if (includeSubclasses || (((listener = clazz.getAnnotation(Listener.class)) != null) && listener.includeSubclasses())) clazz.getSubclasses(Filter.all()).forEach(c -> processClass(c, true));
+		if (includeSubclasses || (((listener = clazz.getAnnotation(Listener.class)) != null) && listener.includeSubclasses())) {
+			return Stream.concat(Stream.of(clazz), clazz.getSubclasses(Filter.all()).stream().flatMap(c -> processClass(c, true)));
+		}
+		return Stream.of(clazz);
+	}
+
+	private <D> Collection<MethodHandler<?>> createHandlers(@NotNull ReflectClass<D> clazz) {
+		D instance = createListener(clazz);
+		if (instance==null) {
+			debug("cannot register listener " + clazz);
+			return List.of();
+		}
+		Collection<MethodHandler<?>> handlers = MethodHandler.getHandlers(this, instance);
+		debugRegistered(instance, handlers);
+		return handlers;
+	}
+
+	/**
+	 * creates the handlers of all listeners, possibly in parallel, and adds them to the registry in one update,
+	 * so that each handler list gets all of its new handlers in a single write
+	 */
+	private <L> void registerAll(@NotNull Stream<L> listeners, @NotNull Function<L, Collection<MethodHandler<?>>> factory) {
+		List<MethodHandler<?>> handlers = listeners.map(factory).flatMap(Collection::stream).toList();
+		synchronized (registry) {
+			//parameter instances may have changed while the handlers were created
+			for (MethodHandler<?> handler : handlers) handler.updateParameterInstances(this);
+			registry.add(handlers);
+		}
 	}
 
 	@Override
-	public <T extends Event> void registerHandler(@NotNull Class<T> event, @NotNull Consumer<T> handler, byte priority, boolean ignoreCancelled) {
-		RawHandler<T, T> rh = new RawHandler<>(event, event, handler, priority, ignoreCancelled);
+	public <T extends Event> @NotNull Subscription registerHandler(@NotNull Class<T> event, @NotNull Consumer<T> handler, byte priority, boolean ignoreCancelled, boolean async) {
+		RawHandler<T, T> rh = new RawHandler<>(event, event, handler, priority, ignoreCancelled, async);
 		debug("register handler " + rh);
-		handlerSet.add(rh);
+		purgeCollected();
+		registry.add(rh);
+		return new HandlerSubscription(registry, List.of(rh));
+	}
+
+	@Override
+	public <T extends Event> @NotNull Subscription registerHandler(@NotNull Class<T> event, @NotNull Object key, @NotNull Consumer<T> handler, byte priority, boolean ignoreCancelled, boolean async) {
+		RawHandler<T, T> rh = new RawHandler<>(event, event, handler, priority, ignoreCancelled, async, key);
+		debug("register handler %s for key %s".formatted(rh, key));
+		purgeCollected();
+		registry.add(rh);
+		return new HandlerSubscription(registry, List.of(rh));
 	}
 
 	@Override
 	@SuppressWarnings({"rawtypes", "unchecked"})
-	public <T> void registerWrappedHandler(@NotNull Class<T> event, Consumer<T> handler, byte priority, boolean ignoreCancelled) {
-		if (Event.class.isAssignableFrom(event)) registerHandler((Class<? extends Event>)event, e -> handler.accept((T) e), priority, ignoreCancelled);
-		else {
-			RawHandler<WrappedEvent, T> rh = new RawHandler<>(WrappedEvent.class, event, handler, priority, ignoreCancelled);
-			debug("register wrapped handler " + rh);
-			handlerSet.add(rh);
-		}
+	public <T> @NotNull Subscription registerWrappedHandler(@NotNull Class<T> event, Consumer<T> handler, byte priority, boolean ignoreCancelled, boolean async) {
+		if (Event.class.isAssignableFrom(event)) return registerHandler((Class<? extends Event>)event, e -> handler.accept((T) e), priority, ignoreCancelled, async);
+		RawHandler<WrappedEvent, T> rh = new RawHandler<>(WrappedEvent.class, event, handler, priority, ignoreCancelled, async);
+		debug("register wrapped handler " + rh);
+		purgeCollected();
+		registry.add(rh);
+		return new HandlerSubscription(registry, List.of(rh));
 	}
 
 	@SuppressWarnings("rawtypes")
 	public void unregisterListener(@NotNull Class<?> clazz) {
-		if (handlerSet.removeIf(h -> h instanceof MethodHandler mh && mh.getListener().getClass().isInstance(clazz))) debug("unregistered listener " + clazz);
+		if (registry.removeIf(h -> h instanceof MethodHandler mh && clazz.isInstance(mh.getListener()))) debug("unregistered listener " + clazz);
 		else debug("listener not unregistered because no listener matches " + clazz);
 	}
 
 	public void unregisterAll() {
 		debug("unregister all handlers");
-		handlerSet.clear();
+		registry.clear();
 	}
 
 	public boolean callEvent(@NotNull Event event) {
+		purgeCollected();
 		if (InternalJEvent.isInternal(event)) {
-			if (!internalEventsEnabled()) return true;
-		} else {
-			EventCallJEvent ec = new EventCallJEvent(this, event);
-			callEvent(ec);
-			if (ec.isCancelled()) {
-				debug("Event call of " + event.getClass() + " cancelled by internal event");
-				return false;
+			if (!useInternalEvents) return true;
+		}
+		else if ((event = prepareCall(event)) == null) return false;
+		return dispatch(event, getHandlers(registry, event));
+	}
+
+	@Override
+	public boolean callEvent(@NotNull Event event, @NotNull Object key) {
+		purgeCollected();
+		if (InternalJEvent.isInternal(event)) {
+			if (!useInternalEvents) return true;
+		}
+		else if ((event = prepareCall(event)) == null) return false;
+		HandlerList handlers = event instanceof WrappedEvent<?> we ? registry.getWrappedEvent(we.getWrapped().getClass(), key) : registry.get(event.getClass(), key);
+		return dispatch(event, handlers);
+	}
+
+	/**
+	 * @return the handlers of the event in the registry, wrapped events are resolved by the class of the wrapped object
+	 */
+	private static HandlerList getHandlers(@NotNull HandlerRegistry registry, @NotNull Event event) {
+		return event instanceof WrappedEvent<?> we ? registry.getWrappedEvent(we.getWrapped().getClass()) : registry.get(event.getClass());
+	}
+
+	@Override
+	public boolean callObject(@NotNull Object object) {
+		if (object instanceof Event event) return callEvent(event);
+		purgeCollected();
+		//the internal event needs an event to call and possibly replace
+		if (useInternalEvents && !getHandlers(EventCallJEvent.class).isEmpty()) return callEvent(new WrappedEvent<>(object));
+		if (isDebugEnabled()) debug("call object " + object.getClass());
+		return dispatch(object, registry.getWrapped(object.getClass()));
+	}
+
+	@Override
+	public void callEvents(@NotNull Collection<? extends Event> events) {
+		purgeCollected();
+		Map<Class<?>, List<Event>> groups = new LinkedHashMap<>();
+		Map<Class<?>, List<Event>> wrappedGroups = new LinkedHashMap<>();
+		for (Event event : events) {
+			if (InternalJEvent.isInternal(event)) {
+				if (!useInternalEvents) continue;
 			}
-			if (ec.isEventModified()) debug("Event changed by internal event from " + event.getClass() + " to " + ec.getEvent().getClass());
-			event = ec.getEvent();
-			debug("call event " + event.getClass());
+			else if ((event = prepareCall(event)) == null) continue;
+			if (event instanceof WrappedEvent<?> we) wrappedGroups.computeIfAbsent(we.getWrapped().getClass(), c -> new ArrayList<>()).add(event);
+			else groups.computeIfAbsent(event.getClass(), c -> new ArrayList<>()).add(event);
 		}
-		Event finalEvent = event;
-		getHandlers(event.getClass()).forEach(h -> h.invoke(this, finalEvent));
-		return event instanceof Cancellable e && e.isCancelled();
+		if (isDebugEnabled()) debug("call %s events in %s batches".formatted(events.size(), groups.size() + wrappedGroups.size()));
+		groups.forEach((type, batch) -> dispatchBatch(type, batch, getHandlers(registry, batch.get(0))));
+		wrappedGroups.forEach((type, batch) -> dispatchBatch(WrappedEvent.class, batch, getHandlers(registry, batch.get(0))));
+	}
+
+	private void dispatchBatch(@NotNull Class<?> type, @NotNull List<Event> batch, @NotNull HandlerList list) {
+		Handler<?>[] handlers = list.getHandlers();
+		MetricsRecorder metrics = this.metrics;
+		if (metrics==null) {
+			for (Handler<?> handler : handlers) handler.invokeBatch(this, batch, null);
+		}
+		else {
+			long start = System.nanoTime();
+			try {
+				for (Handler<?> handler : handlers) handler.invokeBatch(this, batch, metrics.get(handler));
+			} finally {
+				metrics.recordDispatch(type, batch.size(), System.nanoTime() - start);
+			}
+		}
+	}
+
+	/**
+	 * calls the internal event for a non-internal event, if there is any handler for it
+	 *
+	 * @param event the event to be called
+	 * @return the event that should be called, or null if the call was cancelled by the internal event
+	 */
+	@Nullable
+	private Event prepareCall(@NotNull Event event) {
+		if (useInternalEvents) {
+			HandlerList internalHandlers = getHandlers(EventCallJEvent.class);
+			if (!internalHandlers.isEmpty()) {
+				EventCallJEvent ec = new EventCallJEvent(this, event);
+				dispatch(ec, internalHandlers);
+				if (ec.isCancelled()) {
+					debug("Event call of " + event.getClass() + " cancelled by internal event");
+					return null;
+				}
+				if (ec.isEventModified()) debug("Event changed by internal event from " + event.getClass() + " to " + ec.getEvent().getClass());
+				event = ec.getEvent();
+			}
+		}
+		if (isDebugEnabled()) debug("call event " + event.getClass());
+		return event;
+	}
+
+	/**
+	 * calls the handlers in priority order. Once the event is cancelled,
+	 * the handlers that are not called for cancelled events are skipped up to the next one that is.
+	 * Events that are not cancellable are {@link #dispatchParallel(Object, HandlerList, boolean, MetricsRecorder) dispatched in parallel} if any handler or the event class requests it
+	 *
+	 * @param event the event, or the plain object for wrapped handlers
+	 * @return true if the event is cancelled
+	 */
+	private boolean dispatch(@NotNull Object event, @NotNull HandlerList list) {
+		DispatchFlightEvent flight = new DispatchFlightEvent();
+		flight.begin();
+		Handler<?>[] handlers = list.getHandlers();
+		int n = handlers.length;
+		Cancellable cancellable = event instanceof Cancellable c ? c : null;
+		boolean parallelEvent = cancellable==null && n > 1 && isParallel(event.getClass());
+		boolean parallel = cancellable==null && n > 1 && (parallelEvent || list.hasParallel());
+		MetricsRecorder metrics = this.metrics;
+		if (metrics==null) {
+			if (parallel) dispatchParallel(event, list, parallelEvent, null);
+			else for (int i = 0; i < n; i++) {
+				if (cancellable!=null && cancellable.isCancelled() && (i = list.nextIgnoringCancelled(i)) == n) break;
+				handlers[i].invoke(this, event);
+			}
+		}
+		else {
+			long start = System.nanoTime();
+			try {
+				if (parallel) dispatchParallel(event, list, parallelEvent, metrics);
+				else for (int i = 0; i < n; i++) {
+					if (cancellable!=null && cancellable.isCancelled() && (i = list.nextIgnoringCancelled(i)) == n) break;
+					handlers[i].invoke(this, event, metrics.get(handlers[i]));
+				}
+			} finally {
+				metrics.recordDispatch(event.getClass(), 1, System.nanoTime() - start);
+			}
+		}
+		boolean cancelled = cancellable!=null && cancellable.isCancelled();
+		flight.commit(event.getClass(), n, cancelled);
+		return cancelled;
+	}
+
+	/**
+	 * calls the handlers band by band, where a band are all handlers of the same priority.
+	 * The parallel handlers of a band are forked to the common pool, except for the last one which runs on the calling thread together with the sequential handlers.
+	 * The next band is only started once all handlers of the band are done
+	 *
+	 * @param all true if all handlers are executed in parallel, otherwise only the {@link Handler#isParallel() parallel} ones
+	 */
+	private void dispatchParallel(@NotNull Object event, @NotNull HandlerList list, boolean all, @Nullable MetricsRecorder metrics) {
+		Handler<?>[] handlers = list.getHandlers();
+		List<ForkedInvocation> tasks = new ArrayList<>();
+		for (int start = 0, end; start < handlers.length; start = end) {
+			byte priority = handlers[start].getPriority();
+			end = start + 1;
+			while (end < handlers.length && handlers[end].getPriority() == priority) end++;
+			Throwable failure = null;
+			try {
+				Handler<?> last = null;
+				for (int i = start; i < end; i++) {
+					Handler<?> handler = handlers[i];
+					//async handlers are only submitted, so there is nothing to parallelize
+					if (!(all || handler.isParallel()) || handler.isAsync()) invoke(event, handler, metrics);
+					else {
+						if (last != null) {
+							ForkedInvocation task = new ForkedInvocation(event, last, metrics);
+							task.fork();
+							tasks.add(task);
+						}
+						last = handler;
+					}
+				}
+				if (last != null) invoke(event, last, metrics);
+			} catch (Throwable t) {
+				failure = t;
+			}
+			for (ForkedInvocation task : tasks) {
+				task.join();
+				Throwable t = task.failure;
+				if (t == null) continue;
+				if (failure == null) failure = t;
+				else failure.addSuppressed(t);
+			}
+			tasks.clear();
+			if (failure instanceof RuntimeException e) throw e;
+			if (failure instanceof Error e) throw e;
+			if (failure != null) throw new EventException(failure, "parallel handler failed");
+		}
+	}
+
+	private void invoke(@NotNull Object event, @NotNull Handler<?> handler, @Nullable MetricsRecorder metrics) {
+		if (metrics==null) handler.invoke(this, event);
+		else handler.invoke(this, event, metrics.get(handler));
+	}
+
+	/**
+	 * A handler invocation forked by {@link #dispatchParallel(Object, HandlerList, boolean, MetricsRecorder)}.
+	 * It keeps the throwable of the handler, because join rethrows a copy of it, so a handler fails with the same throwable whether it is forked or not
+	 */
+	private final class ForkedInvocation extends RecursiveAction {
+		private final Object event;
+		private final Handler<?> handler;
+		@Nullable
+		private final MetricsRecorder metrics;
+		@Nullable
+		private Throwable failure;
+
+		private ForkedInvocation(Object event, Handler<?> handler, @Nullable MetricsRecorder metrics) {
+			this.event = event;
+			this.handler = handler;
+			this.metrics = metrics;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				JEvent.this.invoke(event, handler, metrics);
+			} catch (Throwable t) {
+				failure = t;
+			}
+		}
+	}
+
+	@Override
+	public void setParallel(@NotNull Class<?> event, boolean parallel) {
+		debug("set parallel for %s: %s".formatted(event, parallel));
+		parallelEvents.put(event, parallel);
+	}
+
+	@Override
+	public boolean isParallel(@NotNull Class<?> event) {
+		for (JEvent manager = this; manager != null; manager = manager.parent) {
+			if (manager.parallelEvents.isEmpty()) continue;
+			for (Class<?> type : TypeHierarchy.getSupertypes(event)) {
+				Boolean parallel = manager.parallelEvents.get(type);
+				if (parallel != null) return parallel;
+			}
+		}
+		return false;
 	}
 
 	@Override
 	public void registerParameterInstance(@NotNull String key, Object instance) {
 		debug("register parameter instance %s: %s".formatted(key, instance));
-		parameterInstances.put(key, instance);
+		synchronized (registry) {
+			parameterInstances.put(key, instance);
+			updateParameterInstance(key, instance);
+		}
 	}
 
 	@Override
 	public @Nullable Object removeParameterInstance(@NotNull String key) {
 		debug("remove parameter instance " + key);
-		return parameterInstances.remove(key);
+		synchronized (registry) {
+			if (!parameterInstances.containsKey(key)) return null;
+			Object instance = parameterInstances.remove(key);
+			updateParameterInstance(key, null);
+			return instance;
+		}
+	}
+
+	private void updateParameterInstance(@NotNull String key, @Nullable Object instance) {
+		for (Handler<?> handler : registry.getAll()) {
+			if (handler instanceof MethodHandler<?> mh) mh.updateParameterInstance(key, instance);
+		}
 	}
 
 	@Override
@@ -230,6 +654,45 @@ public final class JEvent implements EventManager {
 		return parameterInstances.get(key);
 	}
 
+	@Override
+	public @NotNull Executor getAsyncExecutor() {
+		Executor executor = asyncExecutor;
+		return executor==null ? DefaultAsyncExecutor.INSTANCE : executor;
+	}
+
+	@Override
+	public void setAsyncExecutor(@Nullable Executor executor) {
+		this.asyncExecutor = executor;
+	}
+
+	@Override
+	public void setMetricsEnabled(boolean enabled) {
+		synchronized (registry) {
+			if (enabled == (metrics!=null)) return;
+			debug((enabled ? "enable" : "disable") + " metrics");
+			metrics = enabled ? new MetricsRecorder() : null;
+		}
+	}
+
+	@Override
+	public boolean isMetricsEnabled() {
+		return metrics!=null;
+	}
+
+	/**
+	 * drops the metrics of unregistered handlers, so that they do not keep their listeners reachable
+	 */
+	private void removed(@NotNull Collection<Handler<?>> handlers) {
+		MetricsRecorder metrics = this.metrics;
+		if (metrics!=null) metrics.remove(handlers);
+	}
+
+	@Override
+	public @NotNull EventMetrics getMetrics() {
+		MetricsRecorder metrics = this.metrics;
+		return metrics==null ? new EventMetrics(List.of(), List.of()) : metrics.snapshot(registry::contains);
+	}
+
 	@Override
 	public void setDebugLogger(@Nullable Consumer<String> logger) {
 		this.logger = logger;
@@ -240,10 +703,62 @@ public final class JEvent implements EventManager {
 	}
 
 	private void debug(String msg) {
-		if (isDebugEnabled()) logger.accept(msg);
+		Consumer<String> logger = this.logger;
+		if (logger!=null) logger.accept(msg);
 	}
 
 	private void debug(Object obj) {
 		debug(obj.toString());
 	}
+
+	/**
+	 * The subscription of the handlers added by one registration
+	 */
+	private final class HandlerSubscription implements Subscription {
+		private final HandlerRegistry registry;
+		private final List<Handler<?>> handlers;
+		private volatile boolean closed;
+
+		private HandlerSubscription(HandlerRegistry registry, List<Handler<?>> handlers) {
+			this.registry = registry;
+			this.handlers = handlers;
+			this.closed = handlers.isEmpty();
+		}
+
+		@Override
+		public boolean isActive() {
+			if (closed) return false;
+			for (Handler<?> handler : handlers) {
+				if (registry.contains(handler)) return true;
+			}
+			return false;
+		}
+
+		@Override
+		public void close() {
+			if (closed) return;
+			closed = true;
+			if (registry.remove(handlers) && isDebugEnabled()) debug("unregistered %s handlers: %s".formatted(handlers.size(), handlers));
+		}
+	}
+
+	/**
+	 * lazily creates the default async executor, so that no threads are created for EventManagers that are never called asynchronously
+	 */
+	private static final class DefaultAsyncExecutor {
+		private static final Executor INSTANCE = create();
+
+		private static Executor create() {
+			try {
+				return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				AtomicInteger count = new AtomicInteger();
+				return Executors.newCachedThreadPool(r -> {
+					Thread thread = new Thread(r, "JEvent-async-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+		}
+	}
 }
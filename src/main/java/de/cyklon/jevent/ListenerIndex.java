@@ -0,0 +1,220 @@
+package de.cyklon.jevent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The ListenerIndex is the build time index of listener classes and their handler methods, written by the JEvent annotation processor
+ * <p>
+ * Each line of an index file is a tab separated record:
+ * <pre>
+ *  package  &lt;package name&gt;
+ *  listener &lt;listener class&gt; &lt;package the listener is registered through&gt;
+ *  handler  &lt;listener class&gt; &lt;declaring class&gt; &lt;method name&gt; &lt;parameter types&gt; &lt;priority&gt; &lt;ignoreCancelled&gt; &lt;async&gt; &lt;unused&gt; &lt;unused&gt; &lt;parallel&gt;
+ * </pre>
+ * Parameter types are separated by commas. The two unused columns are empty, older versions wrote the event type and the parameter instance keys,
+ * which are derived from the method instead. The parallel flag is missing in indexes written by older versions.
+ * <p>
+ * The packages of an index file are only known for the classpath root (directory or jar) containing it,
+ * so a package is only taken from the index if every root containing the package has an index that records it.
+ */
+final class ListenerIndex {
+	static final String RESOURCE = "META-INF/jevent/listeners.index";
+
+	/**
+	 * the loaded indexes per class loader, a loader without index files is mapped to {@link #NONE}
+	 */
+	private static final Map<ClassLoader, ListenerIndex> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+	private static final ListenerIndex NONE = new ListenerIndex(null);
+
+	/**
+	 * weak, so that the cached index does not keep its class loader reachable
+	 */
+	private final WeakReference<ClassLoader> loader;
+	/**
+	 * the packages compiled with the annotation processor per classpath root of their index file
+	 */
+	private final Map<String, Set<String>> packages = new HashMap<>();
+	/**
+	 * the listener classes per package they are registered through
+	 */
+	private final Map<String, Set<String>> listeners = new HashMap<>();
+	private final Map<String, List<IndexedHandler>> handlers = new HashMap<>();
+
+	private ListenerIndex(@Nullable ClassLoader loader) {
+		this.loader = new WeakReference<>(loader);
+	}
+
+	/**
+	 * loads all index files visible to the context class loader, the index is read once per class loader
+	 *
+	 * @return the index or null if there is no index file
+	 */
+	@Nullable
+	static ListenerIndex load() {
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		return load(loader == null ? ListenerIndex.class.getClassLoader() : loader);
+	}
+
+	/**
+	 * loads all index files visible to the class loader, the index is read once per class loader
+	 *
+	 * @return the index or null if there is no index file
+	 */
+	@Nullable
+	static ListenerIndex load(@NotNull ClassLoader loader) {
+		ListenerIndex index = CACHE.get(loader);
+		if (index == null) {
+			index = read(loader);
+			CACHE.put(loader, index);
+		}
+		return index == NONE ? null : index;
+	}
+
+	private static ListenerIndex read(ClassLoader loader) {
+		try {
+			Enumeration<URL> resources = loader.getResources(RESOURCE);
+			if (!resources.hasMoreElements()) return NONE;
+			ListenerIndex index = new ListenerIndex(loader);
+			while (resources.hasMoreElements()) index.read(resources.nextElement());
+			return index;
+		} catch (IOException e) {
+			throw new EventException(e, "cannot read listener index");
+		}
+	}
+
+	private void read(URL url) throws IOException {
+		Set<String> packages = this.packages.computeIfAbsent(getRoot(url, RESOURCE), r -> new HashSet<>());
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank()) continue;
+				String[] record = line.split("\t", -1);
+				switch (record[0]) {
+					case "package" -> packages.add(record[1]);
+					case "listener" -> listeners.computeIfAbsent(record[2], p -> new LinkedHashSet<>()).add(record[1]);
+					case "handler" -> handlers.computeIfAbsent(record[1], c -> new ArrayList<>()).add(new IndexedHandler(
+							record[2], record[3], split(record[4]), Byte.parseByte(record[5]), Boolean.parseBoolean(record[6]), Boolean.parseBoolean(record[7]),
+							record.length > 10 && Boolean.parseBoolean(record[10])));
+					default -> throw new EventException("invalid listener index record in %s: %s".formatted(url, line));
+				}
+			}
+		}
+	}
+
+	private static String[] split(String list) {
+		return list.isEmpty() ? new String[0] : list.split(",");
+	}
+
+	/**
+	 * @param url the url of a resource
+	 * @param path the path of the resource
+	 * @return the url of the classpath root containing the resource
+	 */
+	private static String getRoot(URL url, String path) {
+		String s = url.toString();
+		if (s.endsWith("/")) s = s.substring(0, s.length() - 1);
+		return s.endsWith(path) ? s.substring(0, s.length() - path.length()) : s;
+	}
+
+	private static boolean isInPackage(@NotNull String name, @NotNull String packageName) {
+		return packageName.isEmpty() || name.equals(packageName) || name.startsWith(packageName + ".");
+	}
+
+	/**
+	 * @param packageName the name of the listener package
+	 * @return true if every classpath root containing the package has an index that records the package.
+	 * Subpackages are only taken from the index, so they are expected in the roots of the package
+	 */
+	boolean covers(@NotNull String packageName) {
+		if (packageName.isEmpty()) return false;
+		String path = packageName.replace('.', '/');
+		try {
+			Enumeration<URL> resources = getLoader().getResources(path);
+			if (!resources.hasMoreElements()) return false;
+			while (resources.hasMoreElements()) {
+				Set<String> indexed = packages.get(getRoot(resources.nextElement(), path));
+				if (indexed == null || !indexed.contains(packageName)) return false;
+			}
+			return true;
+		} catch (IOException e) {
+			throw new EventException(e, "cannot find package " + packageName);
+		}
+	}
+
+	/**
+	 * @param packageName the name of the listener package
+	 * @return the names of all listener classes registered through the package or its subpackages
+	 */
+	@NotNull
+	Set<String> getListeners(@NotNull String packageName) {
+		Set<String> result = new LinkedHashSet<>();
+		listeners.forEach((pkg, classes) -> {
+			if (isInPackage(pkg, packageName)) result.addAll(classes);
+		});
+		return result;
+	}
+
+	/**
+	 * @param listener the name of the listener class
+	 * @return the indexed handler methods of the listener class
+	 */
+	@NotNull
+	List<IndexedHandler> getHandlers(@NotNull String listener) {
+		return handlers.getOrDefault(listener, List.of());
+	}
+
+	@NotNull
+	Class<?> loadClass(@NotNull String name) {
+		try {
+			return switch (name) {
+				case "boolean" -> boolean.class;
+				case "byte" -> byte.class;
+				case "short" -> short.class;
+				case "char" -> char.class;
+				case "int" -> int.class;
+				case "long" -> long.class;
+				case "float" -> float.class;
+				case "double" -> double.class;
+				default -> {
+					if (name.endsWith("[]")) yield loadClass(name.substring(0, name.length() - 2)).arrayType();
+					yield Class.forName(name, true, getLoader());
+				}
+			};
+		} catch (ClassNotFoundException e) {
+			throw new EventException(e, "indexed class not found: " + name);
+		}
+	}
+
+	private ClassLoader getLoader() {
+		ClassLoader loader = this.loader.get();
+		if (loader == null) throw new EventException("the class loader of the listener index was collected");
+		return loader;
+	}
+
+	/**
+	 * an indexed event handler method
+	 */
+	record IndexedHandler(String declaringClass, String name, String[] parameterTypes, byte priority, boolean ignoreCancelled, boolean async, boolean parallel) {
+
+		@NotNull
+		Method resolve(@NotNull ListenerIndex index) {
+			Class<?>[] types = new Class<?>[parameterTypes.length];
+			for (int i = 0; i < types.length; i++) types[i] = index.loadClass(parameterTypes[i]);
+			try {
+				return index.loadClass(declaringClass).getDeclaredMethod(name, types);
+			} catch (NoSuchMethodException e) {
+				throw new EventException(e, "indexed handler method not found: %s.%s".formatted(declaringClass, name));
+			}
+		}
+	}
+}
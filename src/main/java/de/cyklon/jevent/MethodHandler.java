@@ -2,10 +2,16 @@ package de.cyklon.jevent;
 
 import de.cyklon.reflection.entities.ReflectClass;
 import de.cyklon.reflection.entities.members.ReflectMethod;
-import de.cyklon.reflection.entities.members.ReflectParameter;
 import de.cyklon.reflection.function.Filter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.*;
 import java.util.*;
 
 /**
@@ -15,33 +21,77 @@ import java.util.*;
  * An event handler method is a method that is annotated with the {@link EventHandler} annotation
  */
 class MethodHandler<D> extends Handler<Event> {
+	/**
+	 * the listener, or null if it is only {@link #reference weakly referenced}
+	 */
+	@Nullable
 	private final D listener;
-	private final ReflectMethod<D, ?> handler;
+	/**
+	 * the weak reference to the listener, or null if the listener is strongly referenced
+	 */
+	@Nullable
+	private final ListenerReference reference;
+	private final int listenerHash;
+	private final Method handler;
+	/**
+	 * direct call site of the handler method with the listener bound, of type {@code (Object...)void}.
+	 * For weakly referenced listeners the listener is not bound, but passed as an additional first argument.
+	 * If null, the method could not be bound and is invoked reflectively
+	 */
+	@Nullable
+	private final MethodHandle target;
+	/**
+	 * the parameter instance key per method parameter, null for the event and the {@link EventManager} parameter
+	 */
 	private final String[] parameterInstances;
+	/**
+	 * the resolved argument per method parameter, the event slot is left empty
+	 */
+	private final Object[] arguments;
 	private final int eventIndex;
+	/**
+	 * true if the event parameter is a {@code List} of events, which receives a whole batch of events at once
+	 */
+	private final boolean batch;
+	/**
+	 * {@link #target} with all resolved arguments inserted, of type {@code (Object)void}, or {@code (Object, Object)void} for weakly referenced listeners
+	 */
+	@Nullable
+	private volatile MethodHandle invoker;
 
 	@SuppressWarnings("unchecked")
-	private MethodHandler(@NotNull D listener, @NotNull ReflectMethod<D, ?> handler, byte priority, boolean ignoreCancelled) {
-		super(null, null, priority, ignoreCancelled);
-		this.listener = listener;
+	private MethodHandler(@NotNull EventManager manager, @NotNull D listener, @Nullable ListenerReference reference, @NotNull Method handler, byte priority, boolean ignoreCancelled, boolean async, boolean parallel) {
+		super(null, null, priority, ignoreCancelled, async, parallel);
+		this.listener = reference==null ? listener : null;
+		this.reference = reference;
+		this.listenerHash = System.identityHashCode(listener);
 		this.handler = handler;
 
-		List<String> pInstances = new ArrayList<>();
 		int eventIndex = -1;
-		List<? extends ReflectParameter<D, ?>> parameters = handler.getParameters();
-		for(int i = 0; i < parameters.size(); i++) {
-			ReflectParameter<D, ?> parameter = parameters.get(i);
-			Class<?> c = parameter.getReturnType().getInternal();
+		boolean batch = false;
+		Parameter[] parameters = handler.getParameters();
+		Type[] genericTypes = handler.getGenericParameterTypes();
+		for(int i = 0; i < parameters.length; i++) {
+			Parameter parameter = parameters[i];
+			Class<?> c = parameter.getType();
 			if(eventIndex==-1 && Event.class.isAssignableFrom(c)) {
 				this.eventType = (Class<? extends Event>) c;
 				eventIndex = i;
 			}
+			else if (eventIndex==-1 && List.class.equals(c) && !parameter.isAnnotationPresent(ParameterInstance.class)) {
+				Class<?> element = getListElementType(genericTypes[i]);
+				if (element!=null && Event.class.isAssignableFrom(element)) {
+					this.eventType = (Class<? extends Event>) element;
+					eventIndex = i;
+					batch = true;
+				}
+			}
 		}
 		if(eventIndex==-1) {
-			for (int i = 0; i < parameters.size(); i++) {
-				ReflectParameter<D, ?> parameter = parameters.get(i);
-				Class<?> c = parameter.getReturnType().getInternal();
-				if (eventIndex==-1 && !parameter.hasAnnotation(ParameterInstance.class) && !EventManager.class.equals(c)) {
+			for (int i = 0; i < parameters.length; i++) {
+				Parameter parameter = parameters[i];
+				Class<?> c = parameter.getType();
+				if (eventIndex==-1 && !parameter.isAnnotationPresent(ParameterInstance.class) && !EventManager.class.equals(c)) {
 					this.eventType = WrappedEvent.class;
 					this.wrappedType = c;
 					eventIndex = i;
@@ -51,43 +101,213 @@ class MethodHandler<D> extends Handler<Event> {
 
 		if (eventIndex==-1) throw new EventException("the method must have an event as a parameter!");
 
-		for (int i = 0; i < parameters.size(); i++) {
+		this.parameterInstances = new String[parameters.length];
+		this.arguments = new Object[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
 			if (i!=eventIndex) {
-				ReflectParameter<D, ?> parameter = parameters.get(i);
-				Class<?> c = parameter.getReturnType().getInternal();
+				Parameter parameter = parameters[i];
+				Class<?> c = parameter.getType();
 				ParameterInstance pi = parameter.getAnnotation(ParameterInstance.class);
 				if (pi==null) {
-					if (EventManager.class.equals(c)) pInstances.add(null);
-					else pInstances.add(c.getTypeName());
+					if (EventManager.class.equals(c)) arguments[i] = manager;
+					else parameterInstances[i] = c.getTypeName();
 				}
-				else pInstances.add(pi.value());
+				else parameterInstances[i] = pi.value();
+				if (parameterInstances[i]!=null) arguments[i] = manager.getParameterInstance(parameterInstances[i]);
 			}
 		}
 
 		this.eventIndex = eventIndex;
-		this.parameterInstances = pInstances.toArray(String[]::new);
+		this.batch = batch;
+		this.target = bind(this.listener, handler);
+		this.invoker = insertArguments();
 	}
 
-	@NotNull
+	/**
+	 * @param type the generic type of a {@code List} parameter
+	 * @return the element class of the list, or null if it cannot be determined
+	 */
+	private static Class<?> getListElementType(@NotNull Type type) {
+		if (!(type instanceof ParameterizedType pt)) return null;
+		Type element = pt.getActualTypeArguments()[0];
+		if (element instanceof WildcardType wt) element = wt.getUpperBounds()[0];
+		return element instanceof Class<?> c ? c : null;
+	}
+
+	/**
+	 * binds the handler method to the listener once, so that invocations do not go through reflection
+	 *
+	 * @param listener the listener, or null if it is weakly referenced and passed on each invocation instead
+	 * @return the bound method handle or null if the method cannot be accessed this way
+	 */
+	@Nullable
+	private static MethodHandle bind(@Nullable Object listener, @NotNull Method method) {
+		if (!method.trySetAccessible()) return null;
+		try {
+			MethodHandle mh = MethodHandles.lookup().unreflect(method);
+			boolean isStatic = Modifier.isStatic(method.getModifiers());
+			if (!isStatic && listener!=null) mh = mh.bindTo(listener);
+			int parameters = method.getParameterCount() + (isStatic || listener!=null ? 0 : 1);
+			mh = mh.asType(MethodType.genericMethodType(parameters).changeReturnType(void.class));
+			if (isStatic && listener==null) mh = MethodHandles.dropArguments(mh, 0, Object.class);
+			return mh;
+		} catch (IllegalAccessException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * inserts the currently resolved arguments into the target, so that only the event is left to be passed
+	 */
+	@Nullable
+	private MethodHandle insertArguments() {
+		if (target==null) return null;
+		MethodHandle mh = target;
+		int offset = reference==null ? 0 : 1;
+		for (int i = arguments.length-1; i >= 0; i--) {
+			if (i!=eventIndex) mh = MethodHandles.insertArguments(mh, i + offset, arguments[i]);
+		}
+		return mh;
+	}
+
+	/**
+	 * updates the argument slots that are bound to the given parameter instance key
+	 *
+	 * @param key the key of the parameter instance
+	 * @param instance the new instance, or null if it was removed
+	 */
+	void updateParameterInstance(@NotNull String key, @Nullable Object instance) {
+		boolean changed = false;
+		for (int i = 0; i < parameterInstances.length; i++) {
+			if (key.equals(parameterInstances[i]) && arguments[i]!=instance) {
+				arguments[i] = instance;
+				changed = true;
+			}
+		}
+		if (changed) invoker = insertArguments();
+	}
+
+	/**
+	 * resolves all parameter instances of the handler again
+	 *
+	 * @param manager the EventManager the parameter instances are registered to
+	 */
+	void updateParameterInstances(@NotNull EventManager manager) {
+		for (String key : parameterInstances) {
+			if (key!=null) updateParameterInstance(key, manager.getParameterInstance(key));
+		}
+	}
+
+	/**
+	 * @return the listener, or null if it was weakly referenced and is garbage collected
+	 */
+	@Nullable
 	public Object getListener() {
-		return listener;
+		return reference==null ? listener : reference.get();
+	}
+
+	/**
+	 * @return true if the listener is only weakly referenced
+	 */
+	public boolean isWeak() {
+		return reference!=null;
+	}
+
+	@Override
+	public @NotNull Class<?> getListenerType() {
+		Object listener = getListener();
+		return listener==null ? handler.getDeclaringClass() : listener.getClass();
+	}
+
+	@Override
+	public @NotNull String getMethodName() {
+		return handler.getName();
 	}
 
 	@Override
 	protected void invokeEvent(@NotNull EventManager manager, @NotNull Event event) {
-		Object[] params = new Object[parameterInstances.length+1];
-		for (int i = 0; i < params.length; i++) {
-			int i1 = i;
-			if (i>=eventIndex) i1--;
-			Object eventObj = event;
-			if (event instanceof WrappedEvent<?> we) eventObj = we.getWrapped();
-			params[i] = i==eventIndex ? eventObj : parameterInstances[i1]==null ? manager : manager.getParameterInstance(parameterInstances[i1]);
+		if (batch) invokeWith(List.of(event));
+		else invokeWith(wrappedType!=null && event instanceof WrappedEvent<?> we ? we.getWrapped() : event);
+	}
+
+	@Override
+	protected void invokeWrapped(@NotNull EventManager manager, @NotNull Object wrapped) {
+		invokeWith(wrapped);
+	}
+
+	@Override
+	public void invokeBatch(@NotNull EventManager manager, @NotNull List<? extends Event> events, @Nullable MetricsRecorder.HandlerCounter metrics) {
+		if (!batch) {
+			super.invokeBatch(manager, events, metrics);
+			return;
+		}
+		List<Event> accepted = new ArrayList<>(events.size());
+		for (Event event : events) {
+			if (accepts(event)) accepted.add(event);
+		}
+		if (accepted.isEmpty()) return;
+		List<Event> batch = Collections.unmodifiableList(accepted);
+		Runnable traced = () -> {
+			HandlerFlightEvent flight = HandlerFlightEvent.start();
+			if (flight==null) {
+				invokeWith(batch);
+				return;
+			}
+			try {
+				invokeWith(batch);
+			} finally {
+				flight.commit(this, batch.get(0).getClass());
+			}
+		};
+		Runnable invocation = metrics==null ? traced : () -> metrics.measure(traced, null);
+		if (isAsync()) manager.getAsyncExecutor().execute(invocation);
+		else invocation.run();
+	}
+
+	private void invokeWith(@NotNull Object eventObj) {
+		Object listener;
+		if (reference==null) listener = this.listener;
+		//the listener is collected, the handler is removed once the reference is dequeued
+		else if ((listener = reference.get()) == null) return;
+		MethodHandle invoker = this.invoker;
+		if (invoker == null) {
+			Object[] params = arguments.clone();
+			params[eventIndex] = eventObj;
+			try {
+				handler.invoke(listener, params);
+			} catch (InvocationTargetException e) {
+				if (e.getCause() instanceof RuntimeException re) throw re;
+				if (e.getCause() instanceof Error error) throw error;
+				throw new EventException(e.getCause());
+			} catch (IllegalAccessException e) {
+				throw new EventException(e);
+			}
+		}
+		else {
+			try {
+				if (reference==null) invoker.invokeExact(eventObj);
+				else invoker.invokeExact(listener, eventObj);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new EventException(t);
+			}
 		}
-		handler.invoke(listener, params);
 	}
 
 	@NotNull
-	public static <D> Collection<MethodHandler<?>> getHandlers(@NotNull D listener) {
+	public static <D> Collection<MethodHandler<?>> getHandlers(@NotNull EventManager manager, @NotNull D listener) {
+		return getHandlers(manager, listener, null);
+	}
+
+	/**
+	 * @param manager the EventManager the handlers are registered to
+	 * @param listener the listener object
+	 * @param reference the weak reference to the listener, or null to reference it strongly
+	 * @return the handlers of all event handler methods of the listener
+	 */
+	@NotNull
+	public static <D> Collection<MethodHandler<?>> getHandlers(@NotNull EventManager manager, @NotNull D listener, @Nullable ListenerReference reference) {
 		Set<? extends ReflectMethod<D, ?>> methods = ReflectClass.getClass(listener).getMethods(Filter.all());
 		List<MethodHandler<?>> handlers = new LinkedList<>();
 
@@ -95,20 +315,57 @@ class MethodHandler<D> extends Handler<Event> {
 			EventHandler annotation = handler.getAnnotation(EventHandler.class);
 			if(annotation == null) continue;
 
-			handlers.add(new MethodHandler<>(listener, handler, annotation.priority(), annotation.ignoreCancelled()));
+			handlers.add(new MethodHandler<>(manager, listener, reference, handler.getMethod(), annotation.priority(), annotation.ignoreCancelled(), annotation.async(), annotation.parallel()));
 		}
 
 		return handlers;
 	}
 
+	/**
+	 * creates the handler for a method that is already known to be an event handler method, without looking up its annotation
+	 *
+	 * @param manager the EventManager the handler is registered to
+	 * @param listener the listener object
+	 * @param method the event handler method
+	 * @param priority the {@link EventHandler#priority() priority}
+	 * @param ignoreCancelled the {@link EventHandler#ignoreCancelled() ignoreCancelled} value
+	 * @param async the {@link EventHandler#async() async} value
+	 * @param parallel the {@link EventHandler#parallel() parallel} value
+	 * @return the handler
+	 */
+	@NotNull
+	public static <D> MethodHandler<D> create(@NotNull EventManager manager, @NotNull D listener, @NotNull Method method, byte priority, boolean ignoreCancelled, boolean async, boolean parallel) {
+		return new MethodHandler<>(manager, listener, null, method, priority, ignoreCancelled, async, parallel);
+	}
+
 	@Override
 	public int hashCode() {
-		return handler.getMethod().hashCode();
+		return 31 * handler.hashCode() + listenerHash;
 	}
 
+	/**
+	 * a handler equals another handler of the same method on the same listener instance
+	 */
 	@Override
 	public boolean equals(Object obj) {
-		return obj instanceof MethodHandler<?> mh && mh.handler.equals(this.handler);
+		if (!(obj instanceof MethodHandler<?> mh) || !mh.handler.equals(this.handler)) return false;
+		if (mh.reference!=null && mh.reference==this.reference) return true;
+		Object listener = getListener();
+		return listener!=null && listener==mh.getListener();
+	}
+
+	/**
+	 * The weak reference to a listener, shared by all its handlers, so that they can be removed together once it is garbage collected
+	 */
+	static final class ListenerReference extends WeakReference<Object> {
+		/**
+		 * the registered handlers of the listener
+		 */
+		volatile Collection<? extends Handler<?>> handlers = List.of();
+
+		ListenerReference(@NotNull Object listener, @NotNull ReferenceQueue<Object> queue) {
+			super(listener, queue);
+		}
 	}
 
 	@Override
@@ -0,0 +1,106 @@
+package de.cyklon.jevent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * The MetricsRecorder collects the dispatch and handler metrics of an {@link EventManager} while metrics are enabled
+ * <p>
+ * All counters are lock free, only the first record of an event class or handler creates its counters.
+ * The counters of a handler are removed once it is unregistered, so that the recorder does not keep its listener reachable.
+ */
+final class MetricsRecorder {
+	private final Map<Class<?>, EventCounter> events = new ConcurrentHashMap<>();
+	private final Map<Handler<?>, HandlerCounter> handlers = new ConcurrentHashMap<>();
+
+	@NotNull
+	HandlerCounter get(@NotNull Handler<?> handler) {
+		HandlerCounter counter = handlers.get(handler);
+		return counter==null ? handlers.computeIfAbsent(handler, HandlerCounter::new) : counter;
+	}
+
+	void recordDispatch(@NotNull Class<?> event, long count, long nanos) {
+		EventCounter counter = events.get(event);
+		if (counter==null) counter = events.computeIfAbsent(event, e -> new EventCounter());
+		counter.dispatches.add(count);
+		counter.nanos.add(nanos);
+	}
+
+	void remove(@NotNull Collection<Handler<?>> handlers) {
+		for (Handler<?> handler : handlers) this.handlers.remove(handler);
+	}
+
+	/**
+	 * @param registered whether a handler is still registered, the counters of other handlers are dropped.
+	 *                   They can be recreated by an invocation that was already running while the handler was unregistered
+	 */
+	@NotNull
+	EventMetrics snapshot(@NotNull Predicate<Handler<?>> registered) {
+		handlers.keySet().removeIf(registered.negate());
+		List<EventMetrics.EventStats> eventStats = new ArrayList<>();
+		events.forEach((type, counter) -> eventStats.add(new EventMetrics.EventStats(type, counter.dispatches.sum(), counter.nanos.sum())));
+		List<EventMetrics.HandlerStats> handlerStats = new ArrayList<>();
+		handlers.forEach((handler, counter) -> handlerStats.add(counter.snapshot()));
+		return new EventMetrics(eventStats, handlerStats);
+	}
+
+	private static final class EventCounter {
+		private final LongAdder dispatches = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+	}
+
+	/**
+	 * The counters of a single handler
+	 */
+	static final class HandlerCounter {
+		private final Handler<?> handler;
+		private final LongAdder invocations = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder cancellations = new LongAdder();
+		private final AtomicLongArray histogram = new AtomicLongArray(EventMetrics.BUCKETS);
+
+		private HandlerCounter(Handler<?> handler) {
+			this.handler = handler;
+		}
+
+		/**
+		 * runs and measures a single invocation of the handler
+		 *
+		 * @param invocation the invocation
+		 * @param event the event or object, to detect whether the handler cancelled it, or null for batches
+		 */
+		void measure(@NotNull Runnable invocation, @Nullable Object event) {
+			boolean cancelled = event instanceof Cancellable c && c.isCancelled();
+			long start = System.nanoTime();
+			try {
+				invocation.run();
+			} catch (RuntimeException | Error e) {
+				errors.increment();
+				throw e;
+			} finally {
+				long time = System.nanoTime() - start;
+				invocations.increment();
+				nanos.add(time);
+				histogram.incrementAndGet(EventMetrics.getBucket(time));
+			}
+			if (!cancelled && event instanceof Cancellable c && c.isCancelled()) cancellations.increment();
+		}
+
+		private EventMetrics.HandlerStats snapshot() {
+			long[] buckets = new long[histogram.length()];
+			for (int i = 0; i < buckets.length; i++) buckets[i] = histogram.get(i);
+			return new EventMetrics.HandlerStats(handler.toString(), handler.getType(), handler.getPriority(),
+					invocations.sum(), nanos.sum(), errors.sum(), cancellations.sum(), buckets);
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package de.cyklon.jevent;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * This interface can be implemented by events to define their partition key for a {@link PartitionedEventDispatcher}
+ * <p>
+ * All events with an equal partition key are called in the order they were dispatched.
+ */
+public interface Partitioned {
+	/**
+	 * @return the partition key of the event, for example the id of the entity the event belongs to
+	 */
+	@NotNull
+	Object getPartitionKey();
+}
@@ -0,0 +1,136 @@
+package de.cyklon.jevent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Calls events asynchronously on a fixed number of single threaded lanes, while keeping the order of events with the same partition key
+ * <p>
+ * The partition key of an event is taken from a key extractor registered for its class (or a supertype),
+ * or from {@link Partitioned#getPartitionKey()} if the event implements {@link Partitioned}.
+ * All events with an equal key are called on the same lane in the order they were dispatched,
+ * events with different keys are spread over all lanes and called in parallel.
+ * Events without a key are distributed round-robin and have no order guarantee.
+ * <p>
+ * On each lane, the events are called with {@link EventManager#callEvent(Event)}, so the priority and cancel semantics of the handlers are kept.
+ * If handlers are (un)registered while the lanes call events, the EventManager should be {@link EventManager#isConcurrent() concurrent}.
+ * <pre>{@code
+ *  PartitionedEventDispatcher dispatcher = PartitionedEventDispatcher.create(manager, 8);
+ *  dispatcher.registerKeyExtractor(PlayerEvent.class, PlayerEvent::getPlayerId);
+ *  dispatcher.dispatch(new PlayerMoveEvent(player));
+ * }</pre>
+ */
+public final class PartitionedEventDispatcher implements AutoCloseable {
+
+	/**
+	 * creates a new dispatcher
+	 *
+	 * @param manager the EventManager on which the events are called
+	 * @param lanes the number of lanes, each lane is one thread
+	 * @return the new dispatcher
+	 */
+	@NotNull
+	public static PartitionedEventDispatcher create(@NotNull EventManager manager, int lanes) {
+		if (lanes < 1) throw new IllegalArgumentException("at least one lane is required");
+		return new PartitionedEventDispatcher(manager, lanes);
+	}
+
+	private static final Function<Event, Object> NO_EXTRACTOR = e -> e instanceof Partitioned p ? p.getPartitionKey() : null;
+
+	private final EventManager manager;
+	private final ExecutorService[] lanes;
+	private final AtomicInteger nextLane = new AtomicInteger();
+
+	private final Map<Class<?>, Function<? super Event, ?>> keyExtractors = new ConcurrentHashMap<>();
+	/**
+	 * the resolved key extractor per concrete event class, cleared whenever a key extractor is registered
+	 */
+	private final Map<Class<?>, Function<? super Event, ?>> extractorCache = new ConcurrentHashMap<>();
+
+	private PartitionedEventDispatcher(EventManager manager, int lanes) {
+		this.manager = manager;
+		this.lanes = new ExecutorService[lanes];
+		for (int i = 0; i < lanes; i++) {
+			String name = "JEvent-lane-" + i;
+			this.lanes[i] = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, name);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * registers a key extractor for an event class or interface and all its subtypes
+	 * <p>
+	 * A key extractor registered for a subclass takes precedence over the one of its superclass, and those of superclasses over those of interfaces.
+	 *
+	 * @param event the event class or an interface implemented by events
+	 * @param extractor the function that returns the partition key of an event, or null if the event has no key
+	 * @param <T> the event type
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> void registerKeyExtractor(@NotNull Class<T> event, @NotNull Function<? super T, ?> extractor) {
+		keyExtractors.put(event, (Function<? super Event, ?>) extractor);
+		extractorCache.clear();
+	}
+
+	/**
+	 * dispatches the event to the lane of its partition key
+	 *
+	 * @param event the event to be executed
+	 * @return a future that is completed with whether the event was canceled, once all handlers are executed
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> dispatch(@NotNull Event event) {
+		return manager.callEventAsync(event, lanes[getLane(getPartitionKey(event))]);
+	}
+
+	/**
+	 * @param event the event
+	 * @return the partition key of the event or null if it has none
+	 */
+	@Nullable
+	public Object getPartitionKey(@NotNull Event event) {
+		return extractorCache.computeIfAbsent(event.getClass(), this::findExtractor).apply(event);
+	}
+
+	private Function<? super Event, ?> findExtractor(Class<?> type) {
+		for (Class<?> c : TypeHierarchy.getSupertypes(type)) {
+			Function<? super Event, ?> extractor = keyExtractors.get(c);
+			if (extractor != null) return extractor;
+		}
+		return NO_EXTRACTOR;
+	}
+
+	private int getLane(@Nullable Object key) {
+		if (key == null) return Math.floorMod(nextLane.getAndIncrement(), lanes.length);
+		int hash = key.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+	}
+
+	/**
+	 * @return the number of lanes
+	 */
+	public int getLaneCount() {
+		return lanes.length;
+	}
+
+	/**
+	 * stops accepting new events and waits until all lanes called their remaining events
+	 */
+	@Override
+	public void close() {
+		for (ExecutorService lane : lanes) lane.shutdown();
+		try {
+			for (ExecutorService lane : lanes) lane.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -1,7 +1,9 @@
 package de.cyklon.jevent;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 
@@ -9,25 +11,47 @@ import java.util.function.Consumer;
  * The RawHandler object represents a single event handler that is represented by a consumer without an additional method or other wrapper
  */
 class RawHandler<T extends Event, W> extends Handler<T> {
+    private static final AtomicLong IDS = new AtomicLong();
 
     private final long id;
     private final Consumer<W> consumer;
 
-    public RawHandler(Class<T> eventType, Class<W> wrappedType, Consumer<W> consumer, byte priority, boolean ignoreCancelled) {
-        super(eventType, eventType.equals(wrappedType) ? null : wrappedType, priority, ignoreCancelled);
-        this.id = System.nanoTime();
+    public RawHandler(Class<T> eventType, Class<W> wrappedType, Consumer<W> consumer, byte priority, boolean ignoreCancelled, boolean async) {
+        this(eventType, wrappedType, consumer, priority, ignoreCancelled, async, null);
+    }
+
+    public RawHandler(Class<T> eventType, Class<W> wrappedType, Consumer<W> consumer, byte priority, boolean ignoreCancelled, boolean async, @Nullable Object key) {
+        super(eventType, eventType.equals(wrappedType) ? null : wrappedType, priority, ignoreCancelled, async, false, key);
+        this.id = IDS.incrementAndGet();
         this.consumer = consumer;
     }
 
+    @Override
+    public @NotNull Class<?> getListenerType() {
+        return consumer.getClass();
+    }
+
+    @Override
+    public @NotNull String getMethodName() {
+        return "accept";
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     protected void invokeEvent(@NotNull EventManager manager, @NotNull T event) {
         W eventObj;
-        if (wrappedType==null) eventObj = (W) event;
-        else eventObj = ((WrappedEvent<W>) event).getWrapped();
+        //wrapped handlers of an interface or superclass of an event get the event itself
+        if (wrappedType!=null && event instanceof WrappedEvent<?> we) eventObj = (W) we.getWrapped();
+        else eventObj = (W) event;
         consumer.accept(eventObj);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void invokeWrapped(@NotNull EventManager manager, @NotNull Object wrapped) {
+        consumer.accept((W) wrapped);
+    }
+
     @Override
     public int hashCode() {
         return Long.hashCode(id);
@@ -0,0 +1,255 @@
+package de.cyklon.jevent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded event bus on top of an {@link EventManager}, for producer/consumer pipelines
+ * <p>
+ * Producers {@link #publish(Event) publish} events into a preallocated ring buffer and a fixed number of consumer threads drain it
+ * and {@link EventManager#callEvent(Event) call} the events on the EventManager.
+ * If handlers are (un)registered while the consumers call events, the EventManager should be {@link EventManager#isConcurrent() concurrent}.
+ * Exceptions and errors thrown by the handlers are passed to the uncaught exception handler of the consumer thread, which then continues with the next event.
+ * <pre>{@code
+ *  RingBufferEventBus bus = RingBufferEventBus.create(manager, 1024, 2, WaitStrategy.PARK, OverflowPolicy.BLOCK);
+ *  bus.publish(new MyEvent());
+ *  ...
+ *  bus.close(); //calls the remaining events and stops the consumers
+ * }</pre>
+ */
+public final class RingBufferEventBus implements AutoCloseable {
+
+	/**
+	 * Defines how threads wait for the ring buffer, consumers while it is empty and producers while it is full
+	 */
+	public enum WaitStrategy {
+		/**
+		 * spin on the CPU, lowest latency but occupies a core per waiting thread
+		 */
+		BUSY_SPIN,
+		/**
+		 * yield to other threads between attempts
+		 */
+		YIELD,
+		/**
+		 * park the thread for a short time between attempts
+		 */
+		PARK;
+
+		private static final long PARK_NANOS = 50_000;
+
+		private void idle() {
+			switch (this) {
+				case BUSY_SPIN -> Thread.onSpinWait();
+				case YIELD -> Thread.yield();
+				case PARK -> LockSupport.parkNanos(PARK_NANOS);
+			}
+		}
+	}
+
+	/**
+	 * Defines what happens if an event is published while the ring buffer is full
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * wait until there is space, using the {@link WaitStrategy}
+		 */
+		BLOCK,
+		/**
+		 * drop the event, {@link #publish(Event)} returns false
+		 */
+		DROP,
+		/**
+		 * throw an {@link EventException}
+		 */
+		FAIL
+	}
+
+	/**
+	 * creates a bus with one consumer, that parks while waiting and blocks producers while it is full
+	 *
+	 * @param manager the EventManager on which the events are called
+	 * @param capacity the minimum capacity of the ring buffer, it is rounded up to a power of two
+	 * @return the new started bus
+	 */
+	@NotNull
+	public static RingBufferEventBus create(@NotNull EventManager manager, int capacity) {
+		return create(manager, capacity, 1, WaitStrategy.PARK, OverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * creates a new bus and starts its consumer threads
+	 *
+	 * @param manager the EventManager on which the events are called
+	 * @param capacity the minimum capacity of the ring buffer, it is rounded up to a power of two
+	 * @param consumers the number of consumer threads
+	 * @param waitStrategy how producers and consumers wait for the ring buffer
+	 * @param overflowPolicy what happens if the ring buffer is full
+	 * @return the new started bus
+	 */
+	@NotNull
+	public static RingBufferEventBus create(@NotNull EventManager manager, int capacity, int consumers, @NotNull WaitStrategy waitStrategy, @NotNull OverflowPolicy overflowPolicy) {
+		if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+		if (consumers < 1) throw new IllegalArgumentException("at least one consumer is required");
+		RingBufferEventBus bus = new RingBufferEventBus(manager, capacity, consumers, waitStrategy, overflowPolicy);
+		for (Thread consumer : bus.consumers) consumer.start();
+		return bus;
+	}
+
+	private final EventManager manager;
+	private final WaitStrategy waitStrategy;
+	private final OverflowPolicy overflowPolicy;
+
+	private final Event[] buffer;
+	/**
+	 * the sequence per slot, it tells producers and consumers in which round the slot can be written or read
+	 */
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong publishPosition = new AtomicLong();
+	private final AtomicLong consumePosition = new AtomicLong();
+
+	private final Thread[] consumers;
+	private volatile boolean running = true;
+
+	private RingBufferEventBus(EventManager manager, int capacity, int consumers, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+		this.manager = manager;
+		this.waitStrategy = waitStrategy;
+		this.overflowPolicy = overflowPolicy;
+
+		int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		if (size <= 0) throw new IllegalArgumentException("capacity too large");
+		this.buffer = new Event[size];
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) sequences.set(i, i);
+		this.mask = size - 1;
+
+		this.consumers = new Thread[consumers];
+		for (int i = 0; i < consumers; i++) {
+			Thread thread = new Thread(this::consume, "JEvent-ringbuffer-" + i);
+			thread.setDaemon(true);
+			this.consumers[i] = thread;
+		}
+	}
+
+	/**
+	 * publishes the event, so that it is called by one of the consumers
+	 *
+	 * @param event the event
+	 * @return true if the event was published, false if it was dropped because the ring buffer is full
+	 * @throws EventException if the bus is closed, or the ring buffer is full and the {@link OverflowPolicy} is {@link OverflowPolicy#FAIL}
+	 */
+	public boolean publish(@NotNull Event event) {
+		while (true) {
+			if (!running) throw new EventException("the event bus is closed");
+			if (offer(event)) return true;
+			switch (overflowPolicy) {
+				case DROP -> {
+					return false;
+				}
+				case FAIL -> throw new EventException("the ring buffer is full");
+				case BLOCK -> waitStrategy.idle();
+			}
+		}
+	}
+
+	private boolean offer(Event event) {
+		long position = publishPosition.get();
+		while (true) {
+			int index = (int) (position & mask);
+			long diff = sequences.get(index) - position;
+			if (diff == 0) {
+				if (publishPosition.compareAndSet(position, position + 1)) {
+					buffer[index] = event;
+					sequences.set(index, position + 1);
+					return true;
+				}
+				position = publishPosition.get();
+			}
+			else if (diff < 0) return false;
+			else position = publishPosition.get();
+		}
+	}
+
+	private Event poll() {
+		long position = consumePosition.get();
+		while (true) {
+			int index = (int) (position & mask);
+			long diff = sequences.get(index) - (position + 1);
+			if (diff == 0) {
+				if (consumePosition.compareAndSet(position, position + 1)) {
+					Event event = buffer[index];
+					buffer[index] = null;
+					sequences.set(index, position + buffer.length);
+					return event;
+				}
+				position = consumePosition.get();
+			}
+			else if (diff < 0) return null;
+			else position = consumePosition.get();
+		}
+	}
+
+	private void consume() {
+		while (true) {
+			//read before polling, events published before closing are then always taken before stopping
+			boolean stopping = !running;
+			Event event = poll();
+			if (event == null) {
+				if (stopping) return;
+				waitStrategy.idle();
+				continue;
+			}
+			try {
+				manager.callEvent(event);
+			} catch (Throwable t) {
+				//a dead consumer would leave blocked producers waiting forever
+				Thread thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+			}
+		}
+	}
+
+	/**
+	 * @return the capacity of the ring buffer
+	 */
+	public int capacity() {
+		return buffer.length;
+	}
+
+	/**
+	 * @return the approximate number of events that are published but not yet taken by a consumer
+	 */
+	public int size() {
+		return (int) Math.max(0, publishPosition.get() - consumePosition.get());
+	}
+
+	/**
+	 * @return true if the bus accepts new events
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * stops accepting new events and waits until the consumers called all remaining events
+	 * <p>
+	 * Events must not be published concurrently to closing, they may not be called anymore
+	 */
+	@Override
+	public void close() {
+		running = false;
+		for (Thread consumer : consumers) {
+			if (consumer == Thread.currentThread()) continue;
+			try {
+				consumer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package de.cyklon.jevent;
+
+/**
+ * A Subscription is the handle of the handlers added by a single registration
+ * <p>
+ * Closing it removes exactly these handlers, no matter how many other handlers are registered:
+ * <pre>{@code
+ *  Subscription subscription = manager.registerHandler(MyEvent.class, e -> ...);
+ *  ...
+ *  subscription.close();
+ * }</pre>
+ */
+public interface Subscription extends AutoCloseable {
+
+	/**
+	 * @return true if the handlers of this subscription are still registered
+	 */
+	boolean isActive();
+
+	/**
+	 * removes the handlers of this subscription. Does nothing if it is already closed
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,42 @@
+package de.cyklon.jevent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The TypeHierarchy is the index of all supertypes of a class, that is the class itself, its superclasses and all interfaces it implements
+ * <p>
+ * The supertypes are computed once per class and stored with a {@link ClassValue}, so the index does not keep classes or their class loaders from being unloaded.
+ */
+final class TypeHierarchy {
+	private static final ClassValue<Class<?>[]> SUPERTYPES = new ClassValue<>() {
+		@Override
+		protected Class<?>[] computeValue(@NotNull Class<?> type) {
+			Set<Class<?>> supertypes = new LinkedHashSet<>();
+			for (Class<?> c = type; c != null; c = c.getSuperclass()) supertypes.add(c);
+			Deque<Class<?>> queue = new ArrayDeque<>(supertypes);
+			while (!queue.isEmpty()) {
+				for (Class<?> i : queue.poll().getInterfaces()) {
+					if (supertypes.add(i)) queue.add(i);
+				}
+			}
+			return supertypes.toArray(Class<?>[]::new);
+		}
+	};
+
+	private TypeHierarchy() {
+	}
+
+	/**
+	 * @param type the class
+	 * @return the class, its superclasses from the nearest to {@link Object} and then all its interfaces. The array must not be modified
+	 */
+	@NotNull
+	static Class<?>[] getSupertypes(@NotNull Class<?> type) {
+		return SUPERTYPES.get(type);
+	}
+}
@@ -3,11 +3,16 @@ package de.cyklon.jevent;
 import org.jetbrains.annotations.NotNull;
 
 public final class WrappedEvent<T> extends Event {
+    private static final ClassValue<String> NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(@NotNull Class<?> type) {
+            return WrappedEvent.class.getSimpleName() + "{" + type.getName() + "}";
+        }
+    };
 
     private final T wrapped;
 
     public WrappedEvent(@NotNull T wrapped) {
-        super(WrappedEvent.class.getSimpleName() + "{" + wrapped.getClass().getName() + "}");
         this.wrapped = wrapped;
     }
 
@@ -15,6 +20,14 @@ public final class WrappedEvent<T> extends Event {
         return wrapped;
     }
 
+    /**
+     * @return the name of the wrapped class, computed once per class
+     */
+    @Override
+    public @NotNull String getEventName() {
+        return NAMES.get(wrapped.getClass());
+    }
+
     @Override
     public String toString() {
         return WrappedEvent.class.getName() + "(" + wrapped.getClass().getName() + ")";
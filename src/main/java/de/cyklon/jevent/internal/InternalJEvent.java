@@ -3,12 +3,16 @@ package de.cyklon.jevent.internal;
 import de.cyklon.jevent.CancellableEvent;
 import de.cyklon.jevent.Event;
 import de.cyklon.jevent.EventManager;
-import de.cyklon.reflection.entities.ReflectClass;
-import de.cyklon.reflection.entities.ReflectPackage;
 
 public abstract class InternalJEvent extends CancellableEvent {
 
-	private static final ReflectPackage INTERNAL_PACKAGE = ReflectClass.wrap(InternalJEvent.class).getPackage();
+	private static final String INTERNAL_PACKAGE = InternalJEvent.class.getPackageName();
+	private static final ClassValue<Boolean> INTERNAL = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return type.getPackageName().equals(INTERNAL_PACKAGE);
+		}
+	};
 
 	private final EventManager manager;
 
@@ -21,6 +25,6 @@ public abstract class InternalJEvent extends CancellableEvent {
 	}
 
 	public static <T extends Event> boolean isInternal(T event) {
-		return ReflectClass.getClass(event).getPackage().equals(INTERNAL_PACKAGE);
+		return INTERNAL.get(event.getClass());
 	}
 }
@@ -1,5 +1,6 @@
 module JEvent {
 	requires java.base;
+	requires jdk.jfr;
 	requires org.jetbrains.annotations;
 	requires ReflectionUtils;
 
@@ -0,0 +1,80 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncHandlerTest {
+
+	public static class TestEvent extends Event {
+	}
+
+	public static class TestListener {
+		private final CountDownLatch release;
+		private final CountDownLatch done;
+		private final List<String> calls;
+
+		public TestListener(CountDownLatch release, CountDownLatch done, List<String> calls) {
+			this.release = release;
+			this.done = done;
+			this.calls = calls;
+		}
+
+		@EventHandler(async = true, priority = EventHandler.HIGH)
+		public void onAsync(TestEvent event) throws InterruptedException {
+			release.await(5, TimeUnit.SECONDS);
+			calls.add(Thread.currentThread().getName());
+			done.countDown();
+		}
+
+		@EventHandler
+		public void onSync(TestEvent event) {
+			calls.add("sync");
+		}
+	}
+
+	private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+	@Test
+	void callReturnsBeforeAsyncHandlers() throws InterruptedException {
+		EventManager manager = JEvent.createConcurrentManager();
+		ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "test-executor"));
+		try {
+			manager.setAsyncExecutor(executor);
+			CountDownLatch release = new CountDownLatch(1);
+			CountDownLatch done = new CountDownLatch(1);
+			manager.registerListener(new TestListener(release, done, calls));
+
+			manager.callEvent(new TestEvent());
+			assertEquals(List.of("sync"), calls);
+			release.countDown();
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+			assertEquals(List.of("sync", "test-executor"), calls);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void asyncRawHandler() throws InterruptedException {
+		EventManager manager = JEvent.createConcurrentManager();
+		CountDownLatch done = new CountDownLatch(1);
+		Thread caller = Thread.currentThread();
+		manager.registerHandler(TestEvent.class, e -> {
+			if (Thread.currentThread() != caller) calls.add("async");
+			done.countDown();
+		}, EventHandler.NORMAL, false, true);
+
+		manager.callEvent(new TestEvent());
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of("async"), calls);
+	}
+}
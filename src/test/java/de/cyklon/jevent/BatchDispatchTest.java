@@ -0,0 +1,71 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchDispatchTest {
+
+	public static class TestEvent extends CancellableEvent {
+		private final int value;
+
+		public TestEvent(int value) {
+			this.value = value;
+		}
+	}
+
+	public static class OtherEvent extends Event {
+	}
+
+	public static class BatchListener {
+		private final List<List<Integer>> batches;
+
+		public BatchListener(List<List<Integer>> batches) {
+			this.batches = batches;
+		}
+
+		@EventHandler(priority = EventHandler.LOW)
+		public void onEvents(List<TestEvent> events) {
+			batches.add(events.stream().map(e -> e.value).toList());
+		}
+	}
+
+	private final List<String> calls = new ArrayList<>();
+	private final List<List<Integer>> batches = new ArrayList<>();
+
+	@Test
+	void handlersAreCalledPerGroupInPriorityOrder() {
+		EventManager manager = JEvent.createManager();
+		manager.registerHandler(TestEvent.class, e -> calls.add("high" + e.value), EventHandler.HIGH);
+		manager.registerHandler(TestEvent.class, e -> calls.add("normal" + e.value));
+		manager.registerHandler(OtherEvent.class, e -> calls.add("other"));
+
+		manager.callEvents(List.of(new TestEvent(1), new OtherEvent(), new TestEvent(2)));
+		assertEquals(List.of("high1", "high2", "normal1", "normal2", "other"), calls);
+	}
+
+	@Test
+	void listHandlerReceivesTheGroup() {
+		EventManager manager = JEvent.createManager();
+		manager.registerListener(new BatchListener(batches));
+
+		manager.callEvents(List.of(new TestEvent(1), new OtherEvent(), new TestEvent(2), new TestEvent(3)));
+		manager.callEvent(new TestEvent(4));
+		assertEquals(List.of(List.of(1, 2, 3), List.of(4)), batches);
+	}
+
+	@Test
+	void cancelledEventsAreNotPassedOn() {
+		EventManager manager = JEvent.createManager();
+		manager.registerHandler(TestEvent.class, e -> e.setCancelled(e.value % 2 == 0), EventHandler.HIGH);
+		manager.registerListener(new BatchListener(batches));
+		List<TestEvent> events = List.of(new TestEvent(1), new TestEvent(2), new TestEvent(3));
+
+		manager.callEvents(events);
+		assertEquals(List.of(List.of(1, 3)), batches);
+		assertTrue(events.get(1).isCancelled());
+	}
+}
@@ -0,0 +1,66 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallEventAsyncTest {
+
+	public static class TestCancellableEvent extends CancellableEvent {
+	}
+
+	private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+	@Test
+	void completesWithCancelledAfterAllHandlers() throws Exception {
+		EventManager manager = JEvent.createConcurrentManager();
+		Thread caller = Thread.currentThread();
+		manager.registerHandler(TestCancellableEvent.class, e -> calls.add("low"), EventHandler.LOW, true);
+		manager.registerHandler(TestCancellableEvent.class, e -> {
+			calls.add(Thread.currentThread() == caller ? "caller" : "high");
+			e.setCancelled(true);
+		}, EventHandler.HIGH);
+		manager.registerHandler(TestCancellableEvent.class, e -> calls.add("normal"));
+
+		assertTrue(manager.callEventAsync(new TestCancellableEvent()).get(5, TimeUnit.SECONDS));
+		assertEquals(List.of("high", "low"), calls);
+	}
+
+	@Test
+	void runsOnTheGivenExecutor() throws Exception {
+		EventManager manager = JEvent.createConcurrentManager();
+		ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "test-executor"));
+		try {
+			manager.registerHandler(TestCancellableEvent.class, e -> calls.add(Thread.currentThread().getName()));
+
+			assertFalse(manager.callEventAsync(new TestCancellableEvent(), executor).get(5, TimeUnit.SECONDS));
+			manager.setAsyncExecutor(executor);
+			manager.callEventAsync(new TestCancellableEvent()).get(5, TimeUnit.SECONDS);
+			assertEquals(List.of("test-executor", "test-executor"), calls);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void failsWithTheHandlerException() {
+		EventManager manager = JEvent.createConcurrentManager();
+		IllegalStateException failure = new IllegalStateException("handler failed");
+		manager.registerHandler(TestCancellableEvent.class, e -> {
+			throw failure;
+		});
+
+		CompletableFuture<Boolean> future = manager.callEventAsync(new TestCancellableEvent());
+		ExecutionException thrown = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+		assertSame(failure, thrown.getCause());
+	}
+}
@@ -0,0 +1,96 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallObjectTest {
+
+	public interface Named {
+	}
+
+	public static class Payload implements Named {
+	}
+
+	public static class SubPayload extends Payload {
+	}
+
+	public static class CancellablePayload implements Cancellable {
+		private boolean cancelled;
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public void setCancelled(boolean cancelled) {
+			this.cancelled = cancelled;
+		}
+	}
+
+	public static class TestEvent extends Event {
+	}
+
+	private final List<String> calls = new ArrayList<>();
+
+	@Test
+	void callsHandlersOfAllSupertypesByPriority() {
+		EventManager manager = JEvent.createManager();
+		manager.registerWrappedHandler(Named.class, p -> calls.add("named"), EventHandler.LOW);
+		manager.registerWrappedHandler(Payload.class, p -> calls.add("payload"));
+		manager.registerWrappedHandler(SubPayload.class, p -> calls.add("sub"), EventHandler.HIGH);
+		manager.registerWrappedHandler(Object.class, p -> calls.add("object"), EventHandler.LOWEST);
+
+		assertFalse(manager.callObject(new SubPayload()));
+		assertEquals(List.of("sub", "payload", "named", "object"), calls);
+		calls.clear();
+		manager.callObject(new Payload());
+		assertEquals(List.of("payload", "named", "object"), calls);
+	}
+
+	@Test
+	void handlerAddedAfterTheFirstCallIsCalled() {
+		EventManager manager = JEvent.createManager();
+		manager.registerWrappedHandler(Payload.class, p -> calls.add("payload"));
+		manager.callObject(new Payload());
+		manager.registerWrappedHandler(Named.class, p -> calls.add("named"), EventHandler.HIGH);
+		calls.clear();
+
+		manager.callObject(new Payload());
+		assertEquals(List.of("named", "payload"), calls);
+	}
+
+	@Test
+	void wrappedEventHandlersAreOnlyCalledForWrappedEvents() {
+		EventManager manager = JEvent.createManager();
+		manager.registerWrappedHandler(Payload.class, p -> calls.add("payload"));
+		manager.registerHandler(WrappedEvent.class, e -> calls.add("wrapped-event"));
+
+		manager.callObject(new Payload());
+		assertEquals(List.of("payload"), calls);
+		calls.clear();
+		manager.callEvent(new WrappedEvent<>(new Payload()));
+		assertEquals(List.of("payload", "wrapped-event"), calls.stream().sorted().toList());
+	}
+
+	@Test
+	void returnsWhetherTheObjectWasCancelled() {
+		EventManager manager = JEvent.createManager();
+		manager.registerWrappedHandler(CancellablePayload.class, p -> p.setCancelled(true));
+
+		assertTrue(manager.callObject(new CancellablePayload()));
+	}
+
+	@Test
+	void eventsAreCalledAsEvents() {
+		EventManager manager = JEvent.createManager();
+		manager.registerHandler(TestEvent.class, e -> calls.add("event"));
+
+		manager.callObject(new TestEvent());
+		assertEquals(List.of("event"), calls);
+	}
+}
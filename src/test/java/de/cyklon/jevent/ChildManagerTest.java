@@ -0,0 +1,100 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChildManagerTest {
+
+	public static class TestEvent extends Event {
+	}
+
+	public static class SubEvent extends TestEvent {
+	}
+
+	private final List<String> calls = new ArrayList<>();
+
+	private List<String> call(EventManager manager, Event event) {
+		calls.clear();
+		manager.callEvent(event);
+		return List.copyOf(calls);
+	}
+
+	@Test
+	void parentHandlerAddedToCachedChildList() {
+		EventManager parent = JEvent.createManager();
+		EventManager cached = parent.createChild();
+		parent.registerHandler(TestEvent.class, e -> calls.add("p1"));
+		cached.registerHandler(TestEvent.class, e -> calls.add("c1"));
+		call(cached, new TestEvent());
+		parent.registerHandler(TestEvent.class, e -> calls.add("p2"));
+
+		EventManager fresh = parent.createChild();
+		fresh.registerHandler(TestEvent.class, e -> calls.add("c1"));
+
+		assertEquals(List.of("p1", "p2", "c1"), call(cached, new TestEvent()));
+		assertEquals(List.of("p1", "p2", "c1"), call(fresh, new TestEvent()));
+	}
+
+	@Test
+	void incrementalUpdateMatchesFreshResolve() {
+		EventManager cached = JEvent.createManager();
+		EventManager fresh = JEvent.createManager();
+		byte[] priorities = {EventHandler.NORMAL, EventHandler.HIGH, EventHandler.NORMAL, EventHandler.LOW, EventHandler.HIGH, EventHandler.NORMAL};
+		for (int i = 0; i < priorities.length; i++) {
+			String name = "h" + i;
+			Class<? extends TestEvent> type = i % 2 == 0 ? TestEvent.class : SubEvent.class;
+			cached.registerHandler(type, e -> calls.add(name), priorities[i]);
+			fresh.registerHandler(type, e -> calls.add(name), priorities[i]);
+			//resolve the list of the cached manager after every registration
+			call(cached, new SubEvent());
+		}
+		assertEquals(call(fresh, new SubEvent()), call(cached, new SubEvent()));
+	}
+
+	@Test
+	void childCallsParentHandlersByPriority() {
+		EventManager parent = JEvent.createManager();
+		EventManager child = parent.createChild();
+		parent.registerHandler(TestEvent.class, e -> calls.add("parent"));
+		child.registerHandler(TestEvent.class, e -> calls.add("child"), EventHandler.HIGH);
+
+		assertEquals(List.of("child", "parent"), call(child, new TestEvent()));
+		assertEquals(List.of("parent"), call(parent, new TestEvent()));
+	}
+
+	@Test
+	void parentRemovalReachesChild() {
+		EventManager parent = JEvent.createManager();
+		EventManager child = parent.createChild();
+		Subscription subscription = parent.registerHandler(TestEvent.class, e -> calls.add("parent"));
+		child.registerHandler(TestEvent.class, e -> calls.add("child"));
+		call(child, new TestEvent());
+		subscription.close();
+
+		assertEquals(List.of("child"), call(child, new TestEvent()));
+	}
+
+	@Test
+	void destroyReleasesChildHandlers() {
+		EventManager parent = JEvent.createManager();
+		EventManager child = parent.createChild();
+		EventManager grandchild = child.createChild();
+		parent.registerHandler(TestEvent.class, e -> calls.add("parent"));
+		Subscription subscription = child.registerHandler(TestEvent.class, e -> calls.add("child"));
+		grandchild.registerHandler(TestEvent.class, e -> calls.add("grandchild"));
+		assertEquals(List.of("parent", "child", "grandchild"), call(grandchild, new TestEvent()));
+
+		child.destroy();
+
+		assertFalse(subscription.isActive());
+		assertNull(child.getParent());
+		assertNull(grandchild.getParent());
+		assertEquals(List.of(), call(child, new TestEvent()));
+		assertEquals(List.of(), call(grandchild, new TestEvent()));
+		assertEquals(List.of("parent"), call(parent, new TestEvent()));
+	}
+}
@@ -0,0 +1,104 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingEventDispatcherTest {
+
+	public interface Owned {
+		String owner();
+	}
+
+	public static class MoveEvent extends Event implements Owned {
+		private final String owner;
+		private final int value;
+
+		public MoveEvent(String owner, int value) {
+			this.owner = owner;
+			this.value = value;
+		}
+
+		@Override
+		public String owner() {
+			return owner;
+		}
+	}
+
+	public static class TestEvent extends Event {
+	}
+
+	private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+	private EventManager manager() {
+		EventManager manager = JEvent.createConcurrentManager();
+		manager.registerHandler(MoveEvent.class, e -> calls.add(e.owner + e.value));
+		manager.registerHandler(TestEvent.class, e -> calls.add("test"));
+		return manager;
+	}
+
+	@Test
+	void latestEventPerKeyIsCalled() throws Exception {
+		try (CoalescingEventDispatcher dispatcher = CoalescingEventDispatcher.create(manager(), Duration.ofMillis(50))) {
+			dispatcher.registerCoalescing(MoveEvent.class, MoveEvent::owner);
+			List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+			for (int i = 0; i < 10; i++) futures.add(dispatcher.dispatch(new MoveEvent(i % 2 == 0 ? "a" : "b", i)));
+			assertEquals(2, dispatcher.getPendingCount());
+			assertEquals(List.of(), calls);
+
+			CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+			assertEquals(List.of("a8", "b9"), calls.stream().sorted().toList());
+			assertEquals(0, dispatcher.getPendingCount());
+		}
+	}
+
+	@Test
+	void mergeFunctionCombinesEvents() {
+		try (CoalescingEventDispatcher dispatcher = CoalescingEventDispatcher.create(manager(), Duration.ofSeconds(10))) {
+			dispatcher.registerCoalescing(MoveEvent.class, e -> null, (previous, latest) -> new MoveEvent("sum", previous.value + latest.value));
+			for (int i = 1; i <= 4; i++) dispatcher.dispatch(new MoveEvent("a", i));
+			dispatcher.flush();
+			assertEquals(List.of("sum10"), calls);
+		}
+	}
+
+	@Test
+	void coalescingOfAnInterfaceIsUsed() {
+		try (CoalescingEventDispatcher dispatcher = CoalescingEventDispatcher.create(manager(), Duration.ofSeconds(10))) {
+			dispatcher.registerCoalescing(Owned.class, Owned::owner);
+			dispatcher.dispatch(new MoveEvent("a", 1));
+			dispatcher.dispatch(new MoveEvent("a", 2));
+			assertEquals(1, dispatcher.getPendingCount());
+		}
+		assertEquals(List.of("a2"), calls);
+	}
+
+	@Test
+	void otherEventsAreCalledImmediately() throws Exception {
+		try (CoalescingEventDispatcher dispatcher = CoalescingEventDispatcher.create(manager(), Duration.ofSeconds(10))) {
+			dispatcher.registerCoalescing(MoveEvent.class);
+			assertTrue(dispatcher.dispatch(new TestEvent()).isDone());
+			assertEquals(List.of("test"), calls);
+		}
+	}
+
+	@Test
+	void closeCallsPendingEventsAndLaterEventsImmediately() throws Exception {
+		CoalescingEventDispatcher dispatcher = CoalescingEventDispatcher.create(manager(), Duration.ofSeconds(10));
+		dispatcher.registerCoalescing(MoveEvent.class);
+		CompletableFuture<Boolean> pending = dispatcher.dispatch(new MoveEvent("a", 1));
+		dispatcher.close();
+
+		assertFalse(pending.get(5, TimeUnit.SECONDS));
+		assertTrue(dispatcher.dispatch(new MoveEvent("a", 2)).isDone());
+		assertEquals(List.of("a1", "a2"), calls);
+		assertEquals(0, dispatcher.getPendingCount());
+	}
+}
@@ -0,0 +1,96 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatchTest {
+
+	public static class TestEvent extends Event {
+	}
+
+	public static class TestCancellableEvent extends CancellableEvent {
+	}
+
+	private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+	@Test
+	void cancelledEventSkipsToIgnoreCancelledHandlers() {
+		EventManager manager = JEvent.createManager();
+		manager.registerHandler(TestCancellableEvent.class, e -> calls.add("high"), EventHandler.HIGH);
+		manager.registerHandler(TestCancellableEvent.class, e -> {
+			calls.add("cancel");
+			e.setCancelled(true);
+		}, EventHandler.HIGH);
+		manager.registerHandler(TestCancellableEvent.class, e -> calls.add("normal"));
+		manager.registerHandler(TestCancellableEvent.class, e -> calls.add("normal-ignore"), EventHandler.NORMAL, true);
+		manager.registerHandler(TestCancellableEvent.class, e -> calls.add("low"), EventHandler.LOW);
+		manager.registerHandler(TestCancellableEvent.class, e -> calls.add("lowest-ignore"), EventHandler.LOWEST, true);
+
+		assertTrue(manager.callEvent(new TestCancellableEvent()));
+		assertEquals(List.of("high", "cancel", "normal-ignore", "lowest-ignore"), calls);
+	}
+
+	@Test
+	void uncancelledEventCallsFollowingHandlers() {
+		EventManager manager = JEvent.createManager();
+		manager.registerHandler(TestCancellableEvent.class, e -> e.setCancelled(true), EventHandler.HIGHEST);
+		manager.registerHandler(TestCancellableEvent.class, e -> calls.add("high"), EventHandler.HIGH);
+		manager.registerHandler(TestCancellableEvent.class, e -> {
+			calls.add("uncancel");
+			e.setCancelled(false);
+		}, EventHandler.NORMAL, true);
+		manager.registerHandler(TestCancellableEvent.class, e -> calls.add("low"), EventHandler.LOW);
+
+		assertFalse(manager.callEvent(new TestCancellableEvent()));
+		assertEquals(List.of("uncancel", "low"), calls);
+	}
+
+	@Test
+	void parallelPrioritiesAreCalledInOrder() {
+		EventManager manager = JEvent.createManager();
+		manager.setParallel(TestEvent.class, true);
+		for (int i = 0; i < 4; i++) {
+			String name = "high" + i;
+			manager.registerHandler(TestEvent.class, e -> calls.add(name), EventHandler.HIGH);
+		}
+		manager.registerHandler(TestEvent.class, e -> calls.add("normal"));
+		manager.registerHandler(TestEvent.class, e -> calls.add("low"), EventHandler.LOW);
+
+		manager.callEvent(new TestEvent());
+		assertEquals(Set.of("high0", "high1", "high2", "high3"), Set.copyOf(calls.subList(0, 4)));
+		assertEquals(List.of("normal", "low"), calls.subList(4, 6));
+	}
+
+	@Test
+	void parallelHandlerFailureIsRethrown() {
+		EventManager manager = JEvent.createManager();
+		manager.setParallel(TestEvent.class, true);
+		IllegalStateException failure = new IllegalStateException("handler failed");
+		manager.registerHandler(TestEvent.class, e -> {
+			throw failure;
+		});
+		for (int i = 0; i < 3; i++) manager.registerHandler(TestEvent.class, e -> calls.add("other"));
+
+		assertSame(failure, assertThrows(IllegalStateException.class, () -> manager.callEvent(new TestEvent())));
+		assertEquals(3, calls.size());
+	}
+
+	@Test
+	void cancellableEventIsNotCalledInParallel() {
+		EventManager manager = JEvent.createManager();
+		manager.setParallel(TestCancellableEvent.class, true);
+		for (int i = 0; i < 4; i++) {
+			String name = "h" + i;
+			manager.registerHandler(TestCancellableEvent.class, e -> calls.add(name));
+		}
+
+		manager.callEvent(new TestCancellableEvent());
+		assertEquals(List.of("h0", "h1", "h2", "h3"), calls);
+	}
+}
@@ -0,0 +1,54 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HandlerRegistryTest {
+
+	public static class TestEvent extends Event {
+	}
+
+	public static class OtherEvent extends Event {
+	}
+
+	private static <T extends Event> RawHandler<T, T> handler(Class<T> event, Object key) {
+		return new RawHandler<>(event, event, e -> {}, EventHandler.NORMAL, false, false, key);
+	}
+
+	@Test
+	void removalKeepsUnrelatedLists() {
+		HandlerRegistry registry = new HandlerRegistry(false, null, removed -> {});
+		registry.add(handler(TestEvent.class, null));
+		registry.add(handler(TestEvent.class, "a"));
+		RawHandler<OtherEvent, OtherEvent> other = handler(OtherEvent.class, null);
+		RawHandler<OtherEvent, OtherEvent> otherKeyed = handler(OtherEvent.class, "b");
+		registry.add(List.of(other, otherKeyed, handler(OtherEvent.class, null)));
+
+		HandlerList events = registry.get(TestEvent.class);
+		HandlerList keyed = registry.get(TestEvent.class, "a");
+		registry.get(OtherEvent.class);
+		registry.get(OtherEvent.class, "b");
+		registry.remove(List.of(other));
+		registry.remove(List.of(otherKeyed));
+
+		assertSame(events, registry.get(TestEvent.class));
+		assertSame(keyed, registry.get(TestEvent.class, "a"));
+		assertEquals(1, registry.get(OtherEvent.class).size());
+		assertEquals(1, registry.get(OtherEvent.class, "b").size());
+	}
+
+	@Test
+	void removalOfLastKeyedHandlerDropsKeyedLists() {
+		HandlerRegistry registry = new HandlerRegistry(false, null, removed -> {});
+		registry.add(handler(TestEvent.class, null));
+		RawHandler<TestEvent, TestEvent> keyed = handler(TestEvent.class, "a");
+		registry.add(keyed);
+		assertEquals(2, registry.get(TestEvent.class, "a").size());
+		registry.remove(List.of(keyed));
+
+		assertSame(registry.get(TestEvent.class), registry.get(TestEvent.class, "a"));
+	}
+}
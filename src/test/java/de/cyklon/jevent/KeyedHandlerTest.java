@@ -0,0 +1,87 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedHandlerTest {
+
+	public static class TestEvent extends Event {
+	}
+
+	public static class SubEvent extends TestEvent {
+	}
+
+	private final List<String> calls = new ArrayList<>();
+
+	private List<String> call(EventManager manager, Event event, Object key) {
+		calls.clear();
+		manager.callEvent(event, key);
+		return List.copyOf(calls);
+	}
+
+	@Test
+	void keyedAndUnkeyedByPriority() {
+		EventManager manager = JEvent.createManager();
+		manager.registerHandler(TestEvent.class, e -> calls.add("normal"));
+		manager.registerHandler(TestEvent.class, "a", e -> calls.add("a-high"), EventHandler.HIGH);
+		manager.registerHandler(TestEvent.class, "a", e -> calls.add("a-normal"));
+		manager.registerHandler(TestEvent.class, e -> calls.add("low"), EventHandler.LOW);
+		manager.registerHandler(TestEvent.class, "b", e -> calls.add("b"), EventHandler.HIGHEST);
+
+		assertEquals(List.of("a-high", "normal", "a-normal", "low"), call(manager, new TestEvent(), "a"));
+		assertEquals(List.of("b", "normal", "low"), call(manager, new TestEvent(), "b"));
+		assertEquals(List.of("normal", "low"), call(manager, new TestEvent(), "c"));
+	}
+
+	@Test
+	void parentKeyedHandlersFirst() {
+		EventManager parent = JEvent.createManager();
+		EventManager child = parent.createChild();
+		child.registerHandler(TestEvent.class, "a", e -> calls.add("child-a"));
+		parent.registerHandler(TestEvent.class, "a", e -> calls.add("parent-a"));
+		child.registerHandler(TestEvent.class, e -> calls.add("child"));
+		parent.registerHandler(TestEvent.class, e -> calls.add("parent"));
+
+		assertEquals(List.of("parent-a", "parent", "child-a", "child"), call(child, new TestEvent(), "a"));
+	}
+
+	@Test
+	void incrementalUpdateMatchesFreshResolve() {
+		EventManager cached = JEvent.createManager();
+		EventManager fresh = JEvent.createManager();
+		byte[] priorities = {EventHandler.NORMAL, EventHandler.HIGH, EventHandler.NORMAL, EventHandler.LOW, EventHandler.HIGH, EventHandler.NORMAL};
+		for (int i = 0; i < priorities.length; i++) {
+			String name = "h" + i;
+			Class<? extends TestEvent> type = i % 2 == 0 ? TestEvent.class : SubEvent.class;
+			if (i % 3 == 0) {
+				cached.registerHandler(type, e -> calls.add(name), priorities[i]);
+				fresh.registerHandler(type, e -> calls.add(name), priorities[i]);
+			}
+			else {
+				cached.registerHandler(type, "a", e -> calls.add(name), priorities[i]);
+				fresh.registerHandler(type, "a", e -> calls.add(name), priorities[i]);
+			}
+			//resolve the keyed list of the cached manager after every registration
+			call(cached, new SubEvent(), "a");
+		}
+		assertEquals(call(fresh, new SubEvent(), "a"), call(cached, new SubEvent(), "a"));
+	}
+
+	@Test
+	void closedKeyedHandlerIsNotCalled() {
+		EventManager manager = JEvent.createManager();
+		manager.registerHandler(TestEvent.class, e -> calls.add("normal"));
+		Subscription subscription = manager.registerHandler(TestEvent.class, "a", e -> calls.add("a"));
+		call(manager, new TestEvent(), "a");
+		subscription.close();
+
+		assertFalse(subscription.isActive());
+		assertEquals(List.of("normal"), call(manager, new TestEvent(), "a"));
+		manager.registerHandler(TestEvent.class, "a", e -> calls.add("a"));
+		assertEquals(List.of("normal", "a"), call(manager, new TestEvent(), "a"));
+	}
+}
@@ -0,0 +1,67 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListenerIndexTest {
+
+	private static Path root(String... indexedPackages) throws IOException {
+		Path root = Files.createTempDirectory("jevent-index");
+		StringBuilder index = new StringBuilder();
+		for (String pkg : indexedPackages) index.append("package\t").append(pkg).append('\n');
+		if (indexedPackages.length > 0) {
+			Path file = root.resolve(ListenerIndex.RESOURCE);
+			Files.createDirectories(file.getParent());
+			Files.writeString(file, index);
+		}
+		return root;
+	}
+
+	private static URLClassLoader loader(Path... roots) throws IOException {
+		URL[] urls = new URL[roots.length];
+		for (int i = 0; i < roots.length; i++) urls[i] = roots[i].toUri().toURL();
+		return new URLClassLoader(urls, null);
+	}
+
+	@Test
+	void coversOnlyRecordedPackages() throws IOException {
+		Path root = root("com.example", "com.example.listeners");
+		Files.createDirectories(root.resolve("com/example/listeners"));
+		Files.createDirectories(root.resolve("com/other"));
+		ListenerIndex index = ListenerIndex.load(loader(root));
+
+		assertNotNull(index);
+		assertTrue(index.covers("com.example"));
+		assertTrue(index.covers("com.example.listeners"));
+		assertFalse(index.covers("com"));
+		assertFalse(index.covers("com.other"));
+		assertFalse(index.covers(""));
+	}
+
+	@Test
+	void packageInUnindexedRootIsNotCovered() throws IOException {
+		Path indexed = root("com.example");
+		Files.createDirectories(indexed.resolve("com/example"));
+		Path unindexed = root();
+		Files.createDirectories(unindexed.resolve("com/example"));
+		ListenerIndex index = ListenerIndex.load(loader(indexed, unindexed));
+
+		assertNotNull(index);
+		assertFalse(index.covers("com.example"));
+	}
+
+	@Test
+	void loadIsCachedPerClassLoader() throws IOException {
+		URLClassLoader loader = loader(root("com.example"));
+
+		assertSame(ListenerIndex.load(loader), ListenerIndex.load(loader));
+		assertNull(ListenerIndex.load(loader(root())));
+	}
+}
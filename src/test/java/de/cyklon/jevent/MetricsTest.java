@@ -0,0 +1,102 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+	public static class TestEvent extends CancellableEvent {
+		private final int value;
+
+		public TestEvent(int value) {
+			this.value = value;
+		}
+	}
+
+	private static EventMetrics.HandlerStats handler(EventMetrics metrics, byte priority) {
+		for (EventMetrics.HandlerStats stats : metrics.getHandlers()) {
+			if (stats.priority() == priority) return stats;
+		}
+		return fail("no metrics for priority " + priority);
+	}
+
+	@Test
+	void countsDispatchesInvocationsErrorsAndCancellations() {
+		EventManager manager = JEvent.createManager();
+		manager.setMetricsEnabled(true);
+		manager.registerHandler(TestEvent.class, e -> e.setCancelled(e.value % 2 == 0), EventHandler.HIGH);
+		manager.registerHandler(TestEvent.class, e -> {
+			if (e.value == 3) throw new IllegalStateException("handler failed");
+		}, EventHandler.NORMAL, true);
+		manager.registerHandler(TestEvent.class, e -> {}, EventHandler.LOW);
+
+		for (int i = 0; i < 10; i++) {
+			try {
+				manager.callEvent(new TestEvent(i));
+			} catch (IllegalStateException e) {
+				assertEquals(3, i);
+			}
+		}
+
+		EventMetrics metrics = manager.getMetrics();
+		assertEquals(1, metrics.getEvents().size());
+		assertEquals(TestEvent.class, metrics.getEvents().get(0).eventType());
+		assertEquals(10, metrics.getEvents().get(0).dispatches());
+
+		EventMetrics.HandlerStats cancelling = handler(metrics, EventHandler.HIGH);
+		assertEquals(10, cancelling.invocations());
+		assertEquals(5, cancelling.cancellations());
+		EventMetrics.HandlerStats failing = handler(metrics, EventHandler.NORMAL);
+		assertEquals(10, failing.invocations());
+		assertEquals(1, failing.errors());
+		//called for the odd events, except the one that failed before
+		EventMetrics.HandlerStats low = handler(metrics, EventHandler.LOW);
+		assertEquals(4, low.invocations());
+		assertEquals(TestEvent.class, low.eventType());
+	}
+
+	@Test
+	void histogramCountsEveryInvocation() {
+		EventManager manager = JEvent.createManager();
+		manager.setMetricsEnabled(true);
+		manager.registerHandler(TestEvent.class, e -> {
+			try {
+				Thread.sleep(2);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		for (int i = 0; i < 5; i++) manager.callEvent(new TestEvent(1));
+
+		EventMetrics.HandlerStats stats = handler(manager.getMetrics(), EventHandler.NORMAL);
+		long counted = 0;
+		for (long count : stats.histogram()) counted += count;
+		assertEquals(5, counted);
+		assertEquals(EventMetrics.BUCKETS, stats.histogram().length);
+		assertTrue(stats.getPercentile(50) >= 1_000_000, "p50 " + stats.getPercentile(50));
+		assertTrue(stats.getPercentile(50) <= stats.totalNanos());
+	}
+
+	@Test
+	void bucketBoundsAreAscending() {
+		for (int i = 1; i < EventMetrics.BUCKETS; i++) assertTrue(EventMetrics.getBucketLowerBound(i - 1) < EventMetrics.getBucketLowerBound(i), "bucket " + i);
+	}
+
+	@Test
+	void disabledMetricsAreEmpty() {
+		EventManager manager = JEvent.createManager();
+		manager.registerHandler(TestEvent.class, e -> {});
+		manager.callEvent(new TestEvent(1));
+		assertEquals(List.of(), manager.getMetrics().getHandlers());
+
+		manager.setMetricsEnabled(true);
+		manager.callEvent(new TestEvent(1));
+		assertEquals(1, manager.getMetrics().getHandlers().size());
+		manager.setMetricsEnabled(false);
+		assertFalse(manager.isMetricsEnabled());
+		assertEquals(List.of(), manager.getMetrics().getEvents());
+	}
+}
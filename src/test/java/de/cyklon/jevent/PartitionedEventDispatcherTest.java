@@ -0,0 +1,88 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedEventDispatcherTest {
+
+	public interface Owned {
+		String owner();
+	}
+
+	public static class TestEvent extends Event implements Owned {
+		private final String owner;
+		private final int value;
+
+		public TestEvent(String owner, int value) {
+			this.owner = owner;
+			this.value = value;
+		}
+
+		@Override
+		public String owner() {
+			return owner;
+		}
+	}
+
+	public static class SubEvent extends TestEvent {
+		public SubEvent(String owner, int value) {
+			super(owner, value);
+		}
+	}
+
+	public static class PartitionedEvent extends Event implements Partitioned {
+		@Override
+		public Object getPartitionKey() {
+			return "partitioned";
+		}
+	}
+
+	@Test
+	void eventsOfAKeyAreCalledInOrder() throws Exception {
+		EventManager manager = JEvent.createConcurrentManager();
+		Map<String, List<Integer>> calls = new ConcurrentHashMap<>();
+		manager.registerHandler(TestEvent.class, e -> calls.computeIfAbsent(e.owner, o -> new ArrayList<>()).add(e.value));
+		try (PartitionedEventDispatcher dispatcher = PartitionedEventDispatcher.create(manager, 4)) {
+			dispatcher.registerKeyExtractor(TestEvent.class, TestEvent::owner);
+			List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) futures.add(dispatcher.dispatch(new TestEvent("owner" + i % 8, i)));
+			CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+		}
+
+		assertEquals(8, calls.size());
+		calls.forEach((owner, values) -> {
+			assertEquals(125, values.size());
+			for (int i = 1; i < values.size(); i++) assertTrue(values.get(i - 1) < values.get(i), owner);
+		});
+	}
+
+	@Test
+	void keyExtractorOfTheNearestSupertypeIsUsed() {
+		try (PartitionedEventDispatcher dispatcher = PartitionedEventDispatcher.create(JEvent.createConcurrentManager(), 2)) {
+			dispatcher.registerKeyExtractor(Owned.class, Owned::owner);
+			assertEquals("a", dispatcher.getPartitionKey(new SubEvent("a", 0)));
+			dispatcher.registerKeyExtractor(TestEvent.class, e -> "test");
+			assertEquals("test", dispatcher.getPartitionKey(new SubEvent("a", 0)));
+			dispatcher.registerKeyExtractor(SubEvent.class, e -> "sub");
+			assertEquals("sub", dispatcher.getPartitionKey(new SubEvent("a", 0)));
+			assertEquals("test", dispatcher.getPartitionKey(new TestEvent("a", 0)));
+		}
+	}
+
+	@Test
+	void partitionedEventsProvideTheirKey() {
+		try (PartitionedEventDispatcher dispatcher = PartitionedEventDispatcher.create(JEvent.createConcurrentManager(), 2)) {
+			assertEquals("partitioned", dispatcher.getPartitionKey(new PartitionedEvent()));
+			assertNull(dispatcher.getPartitionKey(new TestEvent("a", 0)));
+			assertEquals(2, dispatcher.getLaneCount());
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferEventBusTest {
+
+	public static class TestEvent extends Event {
+		private final int value;
+
+		public TestEvent(int value) {
+			this.value = value;
+		}
+	}
+
+	private final List<Integer> calls = Collections.synchronizedList(new ArrayList<>());
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	/**
+	 * @return a bus with a capacity of 2, whose consumer blocks on the first event until released
+	 */
+	private RingBufferEventBus blockedBus(RingBufferEventBus.OverflowPolicy policy) throws InterruptedException {
+		EventManager manager = JEvent.createConcurrentManager();
+		manager.registerHandler(TestEvent.class, e -> {
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			calls.add(e.value);
+		});
+		RingBufferEventBus bus = RingBufferEventBus.create(manager, 2, 1, RingBufferEventBus.WaitStrategy.PARK, policy);
+		bus.publish(new TestEvent(0));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		assertTrue(bus.publish(new TestEvent(1)));
+		assertTrue(bus.publish(new TestEvent(2)));
+		return bus;
+	}
+
+	@Test
+	void everyWaitStrategyCallsAllEventsInOrder() {
+		for (RingBufferEventBus.WaitStrategy strategy : RingBufferEventBus.WaitStrategy.values()) {
+			calls.clear();
+			EventManager manager = JEvent.createConcurrentManager();
+			manager.registerHandler(TestEvent.class, e -> calls.add(e.value));
+			RingBufferEventBus bus = RingBufferEventBus.create(manager, 4, 1, strategy, RingBufferEventBus.OverflowPolicy.BLOCK);
+			List<Integer> expected = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) {
+				bus.publish(new TestEvent(i));
+				expected.add(i);
+			}
+			bus.close();
+			assertEquals(expected, calls, strategy.name());
+		}
+	}
+
+	@Test
+	void multipleConsumersCallEveryEventOnce() {
+		EventManager manager = JEvent.createConcurrentManager();
+		manager.registerHandler(TestEvent.class, e -> calls.add(e.value));
+		RingBufferEventBus bus = RingBufferEventBus.create(manager, 16, 4, RingBufferEventBus.WaitStrategy.YIELD, RingBufferEventBus.OverflowPolicy.BLOCK);
+		for (int i = 0; i < 1000; i++) bus.publish(new TestEvent(i));
+		bus.close();
+
+		List<Integer> sorted = new ArrayList<>(calls);
+		Collections.sort(sorted);
+		for (int i = 0; i < 1000; i++) assertEquals(i, sorted.get(i).intValue());
+		assertEquals(1000, sorted.size());
+	}
+
+	@Test
+	void dropPolicyRejectsWhileFull() throws InterruptedException {
+		RingBufferEventBus bus = blockedBus(RingBufferEventBus.OverflowPolicy.DROP);
+		assertFalse(bus.publish(new TestEvent(3)));
+		release.countDown();
+		bus.close();
+		assertEquals(List.of(0, 1, 2), calls);
+	}
+
+	@Test
+	void failPolicyThrowsWhileFull() throws InterruptedException {
+		RingBufferEventBus bus = blockedBus(RingBufferEventBus.OverflowPolicy.FAIL);
+		assertThrows(EventException.class, () -> bus.publish(new TestEvent(3)));
+		release.countDown();
+		bus.close();
+		assertEquals(List.of(0, 1, 2), calls);
+	}
+
+	@Test
+	void blockPolicyWaitsForSpace() throws InterruptedException {
+		RingBufferEventBus bus = blockedBus(RingBufferEventBus.OverflowPolicy.BLOCK);
+		Thread producer = new Thread(() -> bus.publish(new TestEvent(3)));
+		producer.start();
+		producer.join(100);
+		assertTrue(producer.isAlive());
+		release.countDown();
+		producer.join(5000);
+		assertFalse(producer.isAlive());
+		bus.close();
+		assertEquals(List.of(0, 1, 2, 3), calls);
+	}
+
+	@Test
+	void closedBusRejectsEvents() {
+		RingBufferEventBus bus = RingBufferEventBus.create(JEvent.createConcurrentManager(), 3);
+		assertEquals(4, bus.capacity());
+		bus.close();
+		assertFalse(bus.isRunning());
+		assertThrows(EventException.class, () -> bus.publish(new TestEvent(0)));
+	}
+
+	@Test
+	void consumerSurvivesHandlerError() {
+		EventManager manager = JEvent.createConcurrentManager();
+		manager.registerHandler(TestEvent.class, e -> {
+			if (e.value == 0) throw new AssertionError("handler failed");
+			calls.add(e.value);
+		});
+		List<Throwable> reported = Collections.synchronizedList(new ArrayList<>());
+		RingBufferEventBus bus = RingBufferEventBus.create(manager, 2, 1, RingBufferEventBus.WaitStrategy.PARK, RingBufferEventBus.OverflowPolicy.BLOCK);
+		Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+		Thread.setDefaultUncaughtExceptionHandler((thread, t) -> reported.add(t));
+		try {
+			for (int i = 0; i < 10; i++) bus.publish(new TestEvent(i % 5));
+			bus.close();
+		} finally {
+			Thread.setDefaultUncaughtExceptionHandler(previous);
+		}
+
+		assertEquals(2, reported.size());
+		assertInstanceOf(AssertionError.class, reported.get(0));
+		assertEquals(List.of(1, 2, 3, 4, 1, 2, 3, 4), calls);
+	}
+}
@@ -0,0 +1,68 @@
+package de.cyklon.jevent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeakListenerTest {
+
+	public static class TestEvent extends Event {
+	}
+
+	public static class TestListener {
+		private final List<String> calls;
+
+		public TestListener(List<String> calls) {
+			this.calls = calls;
+		}
+
+		@EventHandler
+		public void onEvent(TestEvent event) {
+			calls.add("weak");
+		}
+	}
+
+	private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+	@Test
+	void collectedListenerIsUnregistered() throws InterruptedException {
+		EventManager manager = JEvent.createManager();
+		manager.setMetricsEnabled(true);
+		manager.registerHandler(TestEvent.class, e -> calls.add("strong"));
+		TestListener listener = new TestListener(calls);
+		Subscription subscription = manager.registerWeakListener(listener);
+		manager.callEvent(new TestEvent());
+		assertEquals(List.of("strong", "weak"), calls);
+		assertTrue(subscription.isActive());
+
+		listener = null;
+		for (int i = 0; i < 50 && subscription.isActive(); i++) {
+			System.gc();
+			Thread.sleep(20);
+			//the collected listener is purged on the next call
+			manager.callEvent(new TestEvent());
+		}
+		assertFalse(subscription.isActive());
+		calls.clear();
+		manager.callEvent(new TestEvent());
+		assertEquals(List.of("strong"), calls);
+		assertEquals(1, manager.getMetrics().getHandlers().size());
+	}
+
+	@Test
+	void weakListenerIsNotCollectedWhileReachable() {
+		EventManager manager = JEvent.createManager();
+		TestListener listener = new TestListener(calls);
+		Subscription subscription = manager.registerWeakListener(listener);
+		System.gc();
+		manager.callEvent(new TestEvent());
+
+		assertTrue(subscription.isActive());
+		assertEquals(List.of("weak"), calls);
+		assertNotNull(listener);
+	}
+}